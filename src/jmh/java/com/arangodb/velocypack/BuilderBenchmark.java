@@ -0,0 +1,102 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Adding numbers and booleans with the primitive overloads of {@link VPackBuilder} against the boxed ones, which
+ * dispatch through an {@link VPackBuilder.Appender}. Values are chosen outside of the {@link Long#valueOf(long)}
+ * cache, so that boxing allocates. Run with {@code -prof gc} for the allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuilderBenchmark {
+
+	private static final int MEMBERS = 1000;
+	private static final VPackKey VALUE = new VPackKey("value");
+
+	private VPackBuilder builder;
+
+	@Setup
+	public void setup() {
+		builder = new VPackBuilder();
+	}
+
+	@Benchmark
+	public VPackBuilder primitiveArray() {
+		builder.reset();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < MEMBERS; i++) {
+			builder.add(1000L + i);
+			builder.add(i * 0.5);
+			builder.add((i & 1) == 0);
+		}
+		return builder.close();
+	}
+
+	@Benchmark
+	public VPackBuilder boxedArray() {
+		builder.reset();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < MEMBERS; i++) {
+			builder.add(Long.valueOf(1000L + i));
+			builder.add(Double.valueOf(i * 0.5));
+			builder.add(Boolean.valueOf((i & 1) == 0));
+		}
+		return builder.close();
+	}
+
+	@Benchmark
+	public VPackBuilder primitiveObjects() {
+		builder.reset();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < MEMBERS; i++) {
+			builder.add(ValueType.OBJECT);
+			builder.add(VALUE, 1000L + i);
+			builder.close();
+		}
+		return builder.close();
+	}
+
+	@Benchmark
+	public VPackBuilder boxedObjects() {
+		builder.reset();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < MEMBERS; i++) {
+			builder.add(ValueType.OBJECT);
+			builder.add(VALUE, Long.valueOf(1000L + i));
+			builder.close();
+		}
+		return builder.close();
+	}
+
+}
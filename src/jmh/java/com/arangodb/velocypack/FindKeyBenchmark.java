@@ -0,0 +1,74 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Looks up every attribute of a sorted Object with {@link VPackSlice#get(VPackKey)}, which binary searches the index
+ * table and compares the keys with {@code ByteArrayAccess.compareUnsigned}. The keys share a long prefix, so most of
+ * the work is comparing bytes. Run it against the jar to measure the Java 9 {@code Arrays.mismatch} comparison and
+ * with {@code -Djmh.jar=} to measure the Java 8 byte loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FindKeyBenchmark {
+
+	private static final String PREFIX = "a rather long attribute name shared by all keys ";
+
+	@Param({ "16", "1024" })
+	private int size;
+
+	private VPackSlice object;
+	private VPackKey[] keys;
+
+	@Setup
+	public void setup() {
+		keys = new VPackKey[size];
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		for (int i = 0; i < size; i++) {
+			keys[i] = new VPackKey(PREFIX + i);
+			builder.add(keys[i], i);
+		}
+		object = builder.close().slice();
+	}
+
+	@Benchmark
+	public long findKeys() {
+		long sum = 0;
+		for (final VPackKey key : keys) {
+			sum += object.get(key).getAsLong();
+		}
+		return sum;
+	}
+
+}
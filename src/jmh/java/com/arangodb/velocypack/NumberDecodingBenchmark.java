@@ -0,0 +1,84 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.arangodb.velocypack.internal.util.NumberUtil;
+
+/**
+ * Decodes little-endian integers with {@link NumberUtil#toLong(byte[], int, int)} against a plain byte loop. Run it
+ * against the jar to measure the Java 9 {@code VarHandle} reads and with {@code -Djmh.jar=} to measure the Java 8
+ * fallback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NumberDecodingBenchmark {
+
+	private static final int VALUES = 1024;
+
+	@Param({ "2", "4", "8" })
+	private int width;
+
+	private byte[] data;
+
+	@Setup
+	public void setup() {
+		data = new byte[VALUES * 8];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 31 + 7);
+		}
+	}
+
+	@Benchmark
+	public long toLong() {
+		long sum = 0;
+		for (int i = 0; i < VALUES; i++) {
+			sum += NumberUtil.toLong(data, i * width, width);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long byteLoop() {
+		long sum = 0;
+		for (int i = 0; i < VALUES; i++) {
+			final int offset = i * width;
+			long value = 0;
+			for (int j = width - 1; j >= 0; j--) {
+				value = value << 8 | (data[offset + j] & 0xff);
+			}
+			sum += value;
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Builds an Array of documents on a {@link ForkJoinPool} of 1 to N threads, one builder per document, and assembles
+ * them with {@link VPackBuilder#addArray(List, boolean)}, against building the whole Array with a single builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelArrayBenchmark {
+
+	private static final int DOCUMENTS = 10000;
+	private static final VPackKey KEY = new VPackKey("_key");
+	private static final VPackKey NAME = new VPackKey("name");
+	private static final VPackKey VALUES = new VPackKey("values");
+
+	@Param({ "false", "true" })
+	private boolean unindexed;
+
+	@State(Scope.Benchmark)
+	public static class Pool {
+
+		@Param({ "1", "2", "4" })
+		private int threads;
+
+		private ForkJoinPool pool;
+
+		@Setup
+		public void setup() {
+			pool = new ForkJoinPool(threads);
+		}
+
+		@TearDown
+		public void tearDown() {
+			pool.shutdown();
+		}
+
+	}
+
+	private static void addDocument(final VPackBuilder builder, final int i) {
+		builder.add(ValueType.OBJECT);
+		builder.add(KEY, "document" + i);
+		builder.add(NAME, "name of document " + i);
+		builder.add(VALUES, ValueType.ARRAY);
+		for (int j = 0; j < 20; j++) {
+			builder.add(i * 20L + j);
+		}
+		builder.close();
+		builder.close();
+	}
+
+	private static VPackSlice document(final int i) {
+		final VPackBuilder builder = new VPackBuilder();
+		addDocument(builder, i);
+		return builder.slice();
+	}
+
+	@Benchmark
+	public VPackSlice singleBuilder() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY, unindexed);
+		for (int i = 0; i < DOCUMENTS; i++) {
+			addDocument(builder, i);
+		}
+		return builder.close().slice();
+	}
+
+	@Benchmark
+	public VPackSlice parallelAddArray(final Pool pool) throws InterruptedException, ExecutionException {
+		// a parallel stream started within a ForkJoinPool runs in that pool
+		final List<VPackSlice> documents = pool.pool.submit(() -> IntStream.range(0, DOCUMENTS).parallel()
+				.mapToObj(ParallelArrayBenchmark::document).collect(Collectors.toList())).get();
+		return new VPackBuilder().addArray(documents, unindexed).slice();
+	}
+
+}
@@ -45,7 +45,7 @@ public class ArrayIterator extends SliceIterator<VPackSlice> {
 		if (hasNext()) {
 			final VPackSlice next = getCurrent();
 			position++;
-			current += next.getByteSize();
+			current += VPackSlice.getByteSize(slice.getBuffer(), (int) current);
 			return next;
 		} else {
 			throw new NoSuchElementException();
@@ -0,0 +1,127 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack;
+
+import com.arangodb.velocypack.internal.util.NumberUtil;
+import com.arangodb.velocypack.internal.util.StringUtil;
+
+/**
+ * Side index over the members of a compact Array or Object, which have no index table of their own. It holds the
+ * offset of every member and, for Objects, an open addressing hash table over the keys, so random access and
+ * attribute lookups no longer walk the members. It takes at most six ints per member and is immutable once built,
+ * so it can be shared by concurrent readers.
+ */
+final class CompactIndex {
+
+	/**
+	 * Containers with fewer members are walked instead of indexed.
+	 */
+	static final int MIN_MEMBERS = 8;
+
+	private final int[] offsets;
+	// key hash per member, and slots holding member index + 1, both null for Arrays
+	private final int[] hashes;
+	private final int[] table;
+
+	private CompactIndex(final int[] offsets, final int[] hashes, final int[] table) {
+		super();
+		this.offsets = offsets;
+		this.hashes = hashes;
+		this.table = table;
+	}
+
+	/**
+	 * Must be called for a compact Array or Object at the given position
+	 */
+	static CompactIndex build(final byte[] vpack, final int start) {
+		final boolean object = vpack[start] == 0x14;
+		final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+		final int n = (int) NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
+		final int[] offsets = new int[n];
+		final int[] hashes = object ? new int[n] : null;
+		final int[] table = object ? new int[Integer.highestOneBit(Math.max(n, 1)) << 2] : null;
+		int pos = (int) (start + 1 + NumberUtil.getVariableValueLength(end));
+		for (int i = 0; i < n; i++) {
+			offsets[i] = pos - start;
+			pos += VPackSlice.getByteSize(vpack, pos);
+			if (object) {
+				final int hash = keyHash(vpack, start + offsets[i]);
+				hashes[i] = hash;
+				int slot = hash & (table.length - 1);
+				while (table[slot] != 0) {
+					slot = (slot + 1) & (table.length - 1);
+				}
+				table[slot] = i + 1;
+				pos += VPackSlice.getByteSize(vpack, pos);
+			}
+		}
+		return new CompactIndex(offsets, hashes, table);
+	}
+
+	/**
+	 * @return the offset of the member with the given index, relative to the start of the container
+	 */
+	int getOffset(final int index) {
+		if (index < 0 || index >= offsets.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		return offsets[index];
+	}
+
+	/**
+	 * @return the position of the key of the given attribute, or -1 if the Object has no such attribute
+	 */
+	int findKey(final byte[] vpack, final int start, final byte[] name, final long translated) {
+		final int hash = StringUtil.hash(name, 0, name.length);
+		int slot = hash & (table.length - 1);
+		for (int member; (member = table[slot]) != 0; slot = (slot + 1) & (table.length - 1)) {
+			final int keyPos = start + offsets[member - 1];
+			if (hashes[member - 1] == hash && VPackSlice.isKeyEqual(vpack, keyPos, name, translated)) {
+				return keyPos;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the hash of the UTF-8 name of the key at the given position, integer keys are hashed by their
+	 *         translation
+	 */
+	private static int keyHash(final byte[] vpack, final int keyPos) {
+		final byte head = vpack[keyPos];
+		if (VPackSlice.isIntegerHead(head)) {
+			final VPackSlice translation = VPackSlice.attributeTranslator
+					.translate((int) VPackSlice.getIntegerKey(vpack, keyPos));
+			return translation != null && translation.isString()
+					? keyHash(translation.getBuffer(), translation.getStart())
+					: 0;
+		}
+		if (!VPackSlice.isStringHead(head)) {
+			return 0;
+		}
+		if (head == (byte) 0xbf) {
+			return StringUtil.hash(vpack, keyPos + 9, (int) NumberUtil.toLong(vpack, keyPos + 1, 8));
+		}
+		return StringUtil.hash(vpack, keyPos + 1, (head & 0xff) - 0x40);
+	}
+
+}
@@ -52,10 +52,11 @@ public class ObjectIterator extends SliceIterator<Entry<String, VPackSlice>> {
 	public Entry<String, VPackSlice> next() {
 		if (position++ > 0) {
 			if (position <= size && current != 0) {
+				final byte[] vpack = slice.getBuffer();
 				// skip over key
-				current += getCurrent().getByteSize();
+				current += VPackSlice.getByteSize(vpack, (int) current);
 				// skip over value
-				current += getCurrent().getByteSize();
+				current += VPackSlice.getByteSize(vpack, (int) current);
 			} else {
 				throw new NoSuchElementException();
 			}
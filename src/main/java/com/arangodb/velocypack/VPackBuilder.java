@@ -22,14 +22,11 @@ package com.arangodb.velocypack;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import com.arangodb.velocypack.exception.VPackBuilderException;
 import com.arangodb.velocypack.exception.VPackBuilderKeyAlreadyWrittenException;
@@ -42,7 +39,9 @@ import com.arangodb.velocypack.exception.VPackNeedAttributeTranslatorException;
 import com.arangodb.velocypack.exception.VPackValueTypeException;
 import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
 import com.arangodb.velocypack.internal.Value;
+import com.arangodb.velocypack.internal.util.ByteArrayAccess;
 import com.arangodb.velocypack.internal.util.NumberUtil;
+import com.arangodb.velocypack.internal.util.StringUtil;
 
 /**
  * @author Mark Vollmary
@@ -62,6 +61,70 @@ public class VPackBuilder {
 		boolean isBuildUnindexedObjects();
 
 		void setBuildUnindexedObjects(boolean buildUnindexedObjects);
+
+		/**
+		 * @return whether indexed Arrays and Objects with 1-byte offsets keep the zero padding of their reserved
+		 *         header instead of moving their members down when they are closed
+		 */
+		default boolean isUsePadding() {
+			return false;
+		}
+
+		/**
+		 * The default implementation only supports {@code false}, the behavior of options implemented before this
+		 * setting existed.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             if enabled for options that do not support it
+		 */
+		default void setUsePadding(final boolean usePadding) {
+			if (usePadding) {
+				throw new UnsupportedOperationException("setUsePadding");
+			}
+		}
+
+		/**
+		 * @return whether integers outside of the small integer range are always written as signed integers of 4 bytes
+		 *         ({@code int}, {@code short}, {@code byte}) or 8 bytes ({@code long}), instead of the smallest width
+		 */
+		default boolean isUseFixedIntegerWidth() {
+			return false;
+		}
+
+		/**
+		 * The default implementation only supports {@code false}, the behavior of options implemented before this
+		 * setting existed.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             if enabled for options that do not support it
+		 */
+		default void setUseFixedIntegerWidth(final boolean useFixedIntegerWidth) {
+			if (useFixedIntegerWidth) {
+				throw new UnsupportedOperationException("setUseFixedIntegerWidth");
+			}
+		}
+
+		/**
+		 * @return whether {@link BigInteger}s are written as integers if they fit into 64 bits and {@link BigDecimal}s
+		 *         and larger {@link BigInteger}s as packed BCD, instead of as Strings. Not every VelocyPack reader
+		 *         supports BCD.
+		 */
+		default boolean isUseNativeBigNumbers() {
+			return false;
+		}
+
+		/**
+		 * The default implementation only supports {@code false}, the behavior of options implemented before this
+		 * setting existed.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             if enabled for options that do not support it
+		 */
+		default void setUseNativeBigNumbers(final boolean useNativeBigNumbers) {
+			if (useNativeBigNumbers) {
+				throw new UnsupportedOperationException("setUseNativeBigNumbers");
+			}
+		}
 	}
 
 	public interface Appender<T> {
@@ -113,57 +176,45 @@ public class VPackBuilder {
 	private static final Appender<BigDecimal> BIG_DECIMAL = new Appender<BigDecimal>() {
 		@Override
 		public void append(final VPackBuilder builder, final BigDecimal value) throws VPackBuilderException {
-			builder.appendString(value.toString());
+			if (builder.options.isUseNativeBigNumbers() && value.scale() != Integer.MIN_VALUE) {
+				builder.appendBCD(value.unscaledValue(), -value.scale());
+			} else {
+				builder.appendString(value.toString());
+			}
 		}
 	};
 	private static final Appender<Long> LONG = new Appender<Long>() {
 		@Override
 		public void append(final VPackBuilder builder, final Long value) throws VPackBuilderException {
-			if (value <= 9 && value >= -6) {
-				builder.appendSmallInt(value);
-			} else {
-				builder.add((byte) 0x27);
-				builder.append(value, LONG_BYTES);
-			}
+			builder.appendLong(value);
 		}
 	};
 	private static final Appender<Integer> INTEGER = new Appender<Integer>() {
 		@Override
 		public void append(final VPackBuilder builder, final Integer value) throws VPackBuilderException {
-			if (value <= 9 && value >= -6) {
-				builder.appendSmallInt(value);
-			} else {
-				builder.add((byte) 0x23);
-				builder.append(value, INTEGER_BYTES);
-			}
+			builder.appendInt(value);
 		}
 	};
 	private static final Appender<Short> SHORT = new Appender<Short>() {
 		@Override
 		public void append(final VPackBuilder builder, final Short value) throws VPackBuilderException {
-			if (value <= 9 && value >= -6) {
-				builder.appendSmallInt(value);
-			} else {
-				builder.add((byte) 0x23);
-				builder.append(value, INTEGER_BYTES);
-			}
+			builder.appendInt(value);
 		}
 	};
 	private static final Appender<Byte> BYTE = new Appender<Byte>() {
 		@Override
 		public void append(final VPackBuilder builder, final Byte value) {
-			if (value <= 9 && value >= -6) {
-				builder.appendSmallInt(value);
-			} else {
-				builder.add((byte) 0x23);
-				builder.append(value, INTEGER_BYTES);
-			}
+			builder.appendInt(value);
 		}
 	};
 	private static final Appender<BigInteger> BIG_INTEGER = new Appender<BigInteger>() {
 		@Override
 		public void append(final VPackBuilder builder, final BigInteger value) throws VPackBuilderException {
-			builder.appendString(value.toString());
+			if (builder.options.isUseNativeBigNumbers()) {
+				builder.appendBigInteger(value);
+			} else {
+				builder.appendString(value.toString());
+			}
 		}
 	};
 	private static final Appender<Date> DATE = new Appender<Date>() {
@@ -193,7 +244,7 @@ public class VPackBuilder {
 	private static final Appender<Character> CHARACTER = new Appender<Character>() {
 		@Override
 		public void append(final VPackBuilder builder, final Character value) throws VPackBuilderException {
-			builder.appendString(String.valueOf(value));
+			builder.appendChar(value);
 		}
 	};
 	private static final Appender<byte[]> BYTE_ARRAY = new Appender<byte[]>() {
@@ -209,60 +260,142 @@ public class VPackBuilder {
 		}
 	};
 
-	private byte[] buffer; // Here we collect the result
+	private final VPackSink sink; // Here we collect the result
 	private int size;
-	private final List<Integer> stack; // Start positions of open
-										// objects/arrays
-	private final List<List<Integer>> index; // Indices for starts
-														// of
-														// subindex
+	private int[] stack; // Start positions of open objects/arrays
+	private int[] headerSizes; // Bytes reserved for the header of each open object/array
+	private int stackSize;
+	private int[] indexStart; // Start of the subindex of each open object/array
+								// within index
+	private int[] index; // Offsets of the members of all open objects/arrays,
+							// one contiguous run per nesting level
+	private int indexSize;
 	private boolean keyWritten; // indicates that in the current object the key
 								// has been written but the value not yet
 	private final BuilderOptions options;
+	private KeySorter keySorter; // created on the first sorted Object
+	private byte[] scratch; // encodes strings for sinks without array
+	private byte[] buffer; // the array of the sink, written directly to keep the call sites monomorphic, or null
 
 	public VPackBuilder() {
 		this(new DefaultVPackBuilderOptions());
 	}
 
 	public VPackBuilder(final BuilderOptions options) {
+		this(options, 10);
+	}
+
+	/**
+	 * @param options
+	 *            builder options
+	 * @param initialCapacity
+	 *            initial size of the buffer in bytes, should be the expected size of the built VelocyPack value
+	 */
+	public VPackBuilder(final BuilderOptions options, final int initialCapacity) {
+		this(options, new VPackHeapSink(initialCapacity));
+	}
+
+	/**
+	 * @param options
+	 *            builder options
+	 * @param sink
+	 *            memory to build the VelocyPack value in, starting at position 0
+	 */
+	public VPackBuilder(final BuilderOptions options, final VPackSink sink) {
 		super();
 		this.options = options;
+		this.sink = sink;
 		size = 0;
-		buffer = new byte[10];
-		stack = new ArrayList<>();
-		index = new ArrayList<>(4);
+		sink.ensureCapacity(1);
+		buffer = sink.hasArray() ? sink.array() : null;
+		stack = new int[4];
+		headerSizes = new int[4];
+		stackSize = 0;
+		indexStart = new int[4];
+		index = new int[16];
+		indexSize = 0;
 	}
 
 	public BuilderOptions getOptions() {
 		return options;
 	}
 
+	public VPackSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Discards all content of this builder, so that it can be used to build a new VelocyPack value. The grown buffer
+	 * and the internal stacks are kept. Slices previously obtained by {@link #slice()} share this buffer and must not
+	 * be used anymore afterwards.
+	 *
+	 * @return this builder
+	 */
+	public VPackBuilder reset() {
+		size = 0;
+		stackSize = 0;
+		indexSize = 0;
+		keyWritten = false;
+		// an empty builder has to return a None slice
+		put(0, (byte) 0);
+		return this;
+	}
+
+	/**
+	 * @return the current size of the buffer in bytes
+	 */
+	public int getCapacity() {
+		return sink.capacity();
+	}
+
 	private void add(final byte b) {
 		ensureCapacity(size + 1);
-		buffer[size++] = b;
+		put(size++, b);
 	}
 
 	private void addUnchecked(final byte b) {
-		buffer[size++] = b;
+		put(size++, b);
 	}
 
-	private void remove(final int index) {
-		final int numMoved = size - index - 1;
+	private void put(final int index, final byte b) {
+		if (buffer != null) {
+			buffer[index] = b;
+		} else {
+			sink.put(index, b);
+		}
+	}
+
+	private byte get(final int index) {
+		return buffer != null ? buffer[index] : sink.get(index);
+	}
+
+	/**
+	 * Shrinks the 9 bytes reserved for the header of the compound at tos to targetPos bytes, moving the members
+	 * down with a single copy.
+	 */
+	private void shrinkHeader(final int tos, final int targetPos) {
+		final int numMoved = size - (tos + 9);
 		if (numMoved > 0) {
-			System.arraycopy(buffer, index + 1, buffer, index, numMoved);
+			sink.move(tos + 9, tos + targetPos, numMoved);
 		}
-		buffer[--size] = 0;
+		size -= 9 - targetPos;
+	}
+
+	/**
+	 * Whether the members of the compound at tos can stay behind its zero padded header. This is not possible if the
+	 * first member is a None (0x00), since it would be taken for padding.
+	 */
+	private boolean keepPadding(final int tos) {
+		return options.isUsePadding() && get(tos + 9) != 0;
 	}
 
 	private void ensureCapacity(final int minCapacity) {
-		final int oldCapacity = buffer.length;
-		if (minCapacity > oldCapacity) {
-			final byte[] oldData = buffer;
-			int newCapacity = (oldCapacity * 3) / 2 + 1;
-			if (newCapacity < minCapacity) {
-				newCapacity = minCapacity;
-			}
-			buffer = Arrays.copyOf(oldData, newCapacity);
+		if (buffer == null) {
+			sink.ensureCapacity(minCapacity);
+		} else if (minCapacity > buffer.length) {
+			sink.ensureCapacity(minCapacity);
+			// the sink has replaced its array
+			buffer = sink.array();
 		}
 	}
 
@@ -358,6 +491,298 @@ public class VPackBuilder {
 		return addInternal(VPACK, value);
 	}
 
+	public VPackBuilder add(final boolean value) {
+		reportValueAdd();
+		appendBoolean(value);
+		return valueAdded();
+	}
+
+	public VPackBuilder add(final double value) {
+		reportValueAdd();
+		appendDouble(value);
+		return valueAdded();
+	}
+
+	public VPackBuilder add(final long value) {
+		reportValueAdd();
+		appendLong(value);
+		return valueAdded();
+	}
+
+	public VPackBuilder add(final int value) {
+		reportValueAdd();
+		appendInt(value);
+		return valueAdded();
+	}
+
+	public VPackBuilder add(final char value) {
+		reportValueAdd();
+		appendChar(value);
+		return valueAdded();
+	}
+
+	/**
+	 * Adds an Array of integers without index table, all members having the smallest width sufficient for every value.
+	 */
+	public VPackBuilder add(final long[] values) {
+		reportValueAdd();
+		appendLongArray(values);
+		return valueAdded();
+	}
+
+	/**
+	 * Adds an Array of integers without index table, all members having the smallest width sufficient for every value.
+	 */
+	public VPackBuilder add(final int[] values) {
+		reportValueAdd();
+		appendIntArray(values);
+		return valueAdded();
+	}
+
+	/**
+	 * Adds an Array of doubles without index table.
+	 */
+	public VPackBuilder add(final double[] values) {
+		reportValueAdd();
+		appendDoubleArray(values);
+		return valueAdded();
+	}
+
+	/**
+	 * Opens an Array whose size is known in advance. The header is reserved with the width needed for the expected
+	 * size, so that {@link #close()} does not have to move the members. If the estimate turns out to be too small,
+	 * the members are moved once on close; if it is too large, wider offsets than necessary are used. With
+	 * {@link BuilderOptions#isBuildUnindexedArrays()} this is the same as {@code add(ValueType.ARRAY)}.
+	 *
+	 * @param expectedCount
+	 *            expected number of members
+	 * @param expectedBytes
+	 *            expected byte size of all members together
+	 * @return this builder
+	 */
+	public VPackBuilder openArray(final int expectedCount, final int expectedBytes) throws VPackBuilderException {
+		return openArray(null, expectedCount, expectedBytes);
+	}
+
+	/**
+	 * Opens an Object whose size is known in advance, see {@link #openArray(int, int)}. The expected byte size
+	 * includes the keys.
+	 *
+	 * @param expectedCount
+	 *            expected number of members
+	 * @param expectedBytes
+	 *            expected byte size of all keys and values together
+	 * @return this builder
+	 */
+	public VPackBuilder openObject(final int expectedCount, final int expectedBytes) throws VPackBuilderException {
+		return openObject(null, expectedCount, expectedBytes);
+	}
+
+	/**
+	 * Opens an Array as member of the current Object, see {@link #openArray(int, int)}.
+	 */
+	public VPackBuilder openArray(final String attribute, final int expectedCount, final int expectedBytes)
+			throws VPackBuilderException {
+		if (options.isBuildUnindexedArrays()) {
+			return add(attribute, ValueType.ARRAY);
+		}
+		return openSized(attribute, (byte) 0x06, expectedCount, expectedBytes);
+	}
+
+	/**
+	 * Opens an Object as member of the current Object, see {@link #openObject(int, int)}.
+	 */
+	public VPackBuilder openObject(final String attribute, final int expectedCount, final int expectedBytes)
+			throws VPackBuilderException {
+		if (options.isBuildUnindexedObjects()) {
+			return add(attribute, ValueType.OBJECT);
+		}
+		return openSized(attribute, (byte) 0x0b, expectedCount, expectedBytes);
+	}
+
+	/**
+	 * Adds an Array of the given values, for example built by independent builders in parallel. Every value is copied
+	 * once, straight to its final position, and the offset table is computed from the known sizes.
+	 *
+	 * @param values
+	 *            members of the Array
+	 * @param unindexed
+	 *            whether to build a compact Array without offset table
+	 * @return this builder
+	 */
+	public VPackBuilder addArray(final List<VPackSlice> values, final boolean unindexed) throws VPackBuilderException {
+		return addArray(null, values, unindexed);
+	}
+
+	/**
+	 * Adds an Array of the given values as member of the current Object, see {@link #addArray(List, boolean)}.
+	 */
+	public VPackBuilder addArray(final String attribute, final List<VPackSlice> values, final boolean unindexed)
+			throws VPackBuilderException {
+		long bytes = 0;
+		int memberSize = -1;
+		boolean equalSize = true;
+		for (final VPackSlice value : values) {
+			final int byteSize = value.getByteSize();
+			if (memberSize < 0) {
+				memberSize = byteSize;
+			} else if (byteSize != memberSize) {
+				equalSize = false;
+			}
+			bytes += byteSize;
+		}
+		if (!unindexed || values.isEmpty()) {
+			if (equalSize && !values.isEmpty()) {
+				openEqualSized(attribute, values.size(), memberSize);
+			} else {
+				openSized(attribute, (byte) 0x06, values.size(), bytes);
+			}
+			for (final VPackSlice value : values) {
+				reportAdd();
+				appendVPack(value);
+			}
+			return close();
+		}
+		reportAdd(attribute);
+		appendCompact((byte) 0x13, values.size(), bytes);
+		for (final VPackSlice value : values) {
+			appendVPack(value);
+		}
+		appendCompactCount(values.size());
+		return valueAdded();
+	}
+
+	/**
+	 * Adds an Object of the given members, for example built by independent builders in parallel. Every value is
+	 * copied once, straight to its final position, and the offset table is computed from the known sizes.
+	 *
+	 * @param members
+	 *            members of the Object
+	 * @param unindexed
+	 *            whether to build a compact Object without offset table
+	 * @return this builder
+	 */
+	public VPackBuilder addObject(final Map<String, VPackSlice> members, final boolean unindexed)
+			throws VPackBuilderException {
+		return addObject(null, members, unindexed);
+	}
+
+	/**
+	 * Adds an Object of the given members as member of the current Object, see {@link #addObject(Map, boolean)}.
+	 */
+	public VPackBuilder addObject(
+		final String attribute,
+		final Map<String, VPackSlice> members,
+		final boolean unindexed) throws VPackBuilderException {
+		long bytes = 0;
+		for (final Map.Entry<String, VPackSlice> member : members.entrySet()) {
+			bytes += attributeByteSize(member.getKey()) + member.getValue().getByteSize();
+		}
+		if (!unindexed || members.isEmpty()) {
+			openSized(attribute, (byte) 0x0b, members.size(), bytes);
+			for (final Map.Entry<String, VPackSlice> member : members.entrySet()) {
+				reportAdd();
+				appendAttribute(member.getKey());
+				appendVPack(member.getValue());
+			}
+			return close();
+		}
+		reportAdd(attribute);
+		appendCompact((byte) 0x14, members.size(), bytes);
+		for (final Map.Entry<String, VPackSlice> member : members.entrySet()) {
+			appendAttribute(member.getKey());
+			appendVPack(member.getValue());
+		}
+		appendCompactCount(members.size());
+		return valueAdded();
+	}
+
+	/**
+	 * Reports a value with the given attribute, or without if it is null, added to the current compound.
+	 */
+	private void reportAdd(final String attribute) {
+		if (attribute != null) {
+			reportAttributeAdd();
+			appendAttribute(attribute);
+		} else {
+			reportValueAdd();
+		}
+	}
+
+	/**
+	 * @return the number of bytes {@link #appendAttribute(String)} writes for the given attribute
+	 */
+	private static int attributeByteSize(final String attribute) {
+		if (VPackSlice.attributeTranslator != null) {
+			final VPackSlice translate = VPackSlice.attributeTranslator.translate(attribute);
+			if (translate != null) {
+				return translate.getByteSize();
+			}
+		}
+		final int length = StringUtil.encodedLength(attribute);
+		return length <= 126 ? 1 + length : 1 + LONG_BYTES + length;
+	}
+
+	/**
+	 * Appends the head and byte length of a compact Array or Object with n members of the given total byte size,
+	 * and reserves the space for members and their number.
+	 */
+	private void appendCompact(final byte head, final int n, final long bytes) {
+		final long nLen = NumberUtil.getVariableValueLength(n);
+		long bLen = 1;
+		while (NumberUtil.getVariableValueLength(1 + bLen + bytes + nLen) != bLen) {
+			bLen++;
+		}
+		final long byteSize = 1 + bLen + bytes + nLen;
+		ensureCapacity((int) (size + byteSize));
+		final int tos = size;
+		addUnchecked(head);
+		size += bLen;
+		storeVariableValueLength(tos, byteSize, false);
+	}
+
+	private void appendCompactCount(final int n) {
+		final int nLen = (int) NumberUtil.getVariableValueLength(n);
+		storeVariableValueLength(size + nLen, n, true);
+		size += nLen;
+	}
+
+	private VPackBuilder openSized(final String attribute, final byte head, final int expectedCount,
+		final long expectedBytes) {
+		reportAdd(attribute);
+		final long count = Math.max(expectedCount, 0);
+		final long bytes = Math.max(expectedBytes, 0);
+		final int headerSize;
+		if (3 + bytes + count <= 0xff) {
+			headerSize = 3;
+		} else if (5 + bytes + 2 * count <= 0xffff) {
+			headerSize = 5;
+		} else {
+			headerSize = 9;
+		}
+		addCompoundValue(head, headerSize);
+		return this;
+	}
+
+	/**
+	 * Opens an Array of n members of memberSize bytes each, which will be closed without index table.
+	 */
+	private void openEqualSized(final String attribute, final int n, final int memberSize) {
+		reportAdd(attribute);
+		final long bytes = (long) n * memberSize;
+		final int headerSize;
+		if (2 + bytes <= 0xff) {
+			headerSize = 2;
+		} else if (3 + bytes <= 0xffff) {
+			headerSize = 3;
+		} else if (5 + bytes <= 0xffffffffL) {
+			headerSize = 5;
+		} else {
+			headerSize = 9;
+		}
+		addCompoundValue((byte) 0x06, headerSize);
+	}
+
 	public VPackBuilder add(final String attribute, final ValueType value) throws VPackBuilderException {
 		return addInternal(attribute, VALUE_TYPE, value);
 	}
@@ -441,6 +866,249 @@ public class VPackBuilder {
 		return addInternal(attribute, VPACK, value);
 	}
 
+	public VPackBuilder add(final String attribute, final boolean value) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendBoolean(value);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final double value) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendDouble(value);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final long value) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendLong(value);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final int value) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendInt(value);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final char value) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendChar(value);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final long[] values) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendLongArray(values);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final int[] values) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendIntArray(values);
+		return this;
+	}
+
+	public VPackBuilder add(final String attribute, final double[] values) throws VPackBuilderException {
+		if (attribute == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendAttribute(attribute);
+		appendDoubleArray(values);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final ValueType value) throws VPackBuilderException {
+		return addInternal(key, VALUE_TYPE, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final ValueType value, final boolean unindexed)
+			throws VPackBuilderException {
+		return addInternal(key, VALUE, new Value(value, unindexed));
+	}
+
+	public VPackBuilder add(final VPackKey key, final Boolean value) throws VPackBuilderException {
+		return addInternal(key, BOOLEAN, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Double value) throws VPackBuilderException {
+		return addInternal(key, DOUBLE, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Float value) throws VPackBuilderException {
+		return addInternal(key, FLOAT, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final BigDecimal value) throws VPackBuilderException {
+		return addInternal(key, BIG_DECIMAL, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Long value) throws VPackBuilderException {
+		return addInternal(key, LONG, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Long value, final ValueType type)
+			throws VPackBuilderException {
+		return addInternal(key, VALUE, new Value(value, type));
+	}
+
+	public VPackBuilder add(final VPackKey key, final Integer value) throws VPackBuilderException {
+		return addInternal(key, INTEGER, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Short value) throws VPackBuilderException {
+		return addInternal(key, SHORT, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Byte value) throws VPackBuilderException {
+		return addInternal(key, BYTE, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final BigInteger value) throws VPackBuilderException {
+		return addInternal(key, BIG_INTEGER, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final BigInteger value, final ValueType type)
+			throws VPackBuilderException {
+		return addInternal(key, VALUE, new Value(value, type));
+	}
+
+	public VPackBuilder add(final VPackKey key, final String value) throws VPackBuilderException {
+		return addInternal(key, STRING, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Character value) throws VPackBuilderException {
+		return addInternal(key, CHARACTER, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final Date value) throws VPackBuilderException {
+		return addInternal(key, DATE, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final java.sql.Date value) throws VPackBuilderException {
+		return addInternal(key, SQL_DATE, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final java.sql.Timestamp value) throws VPackBuilderException {
+		return addInternal(key, SQL_TIMESTAMP, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final byte[] value) throws VPackBuilderException {
+		return addInternal(key, BYTE_ARRAY, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final VPackSlice value) throws VPackBuilderException {
+		return addInternal(key, VPACK, value);
+	}
+
+	public VPackBuilder add(final VPackKey key, final boolean value) throws VPackBuilderException {
+		if (key == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendBoolean(value);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final double value) throws VPackBuilderException {
+		if (key == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendDouble(value);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final long value) throws VPackBuilderException {
+		if (key == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendLong(value);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final int value) throws VPackBuilderException {
+		if (key == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendInt(value);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final char value) throws VPackBuilderException {
+		if (key == null) {
+			return add(value);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendChar(value);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final long[] values) throws VPackBuilderException {
+		if (key == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendLongArray(values);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final int[] values) throws VPackBuilderException {
+		if (key == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendIntArray(values);
+		return this;
+	}
+
+	public VPackBuilder add(final VPackKey key, final double[] values) throws VPackBuilderException {
+		if (key == null) {
+			return add(values);
+		}
+		reportAttributeAdd();
+		appendKey(key);
+		appendDoubleArray(values);
+		return this;
+	}
+
 	public VPackBuilder addTagged(final long tag, final ValueType value) throws VPackBuilderException {
 		return addInternal(tag, VALUE_TYPE, value);
 	}
@@ -608,9 +1276,32 @@ public class VPackBuilder {
 		return addInternal(0, appender, value);
 	}
 
+	/**
+	 * Reports a value added to the current Array, if any. Only to be used for values which can not fail to append.
+	 */
+	private void reportValueAdd() {
+		if (stackSize > 0 && !keyWritten) {
+			reportAdd();
+		}
+	}
+
+	private VPackBuilder valueAdded() {
+		if (stackSize == 0) {
+			topLevelValueCompleted();
+		}
+		return this;
+	}
+
+	/**
+	 * Called whenever a value on the top level is complete, i.e. after a primitive value was added outside of any
+	 * Array or Object, or after the outermost Array or Object was closed. Does nothing by default.
+	 */
+	protected void topLevelValueCompleted() {
+	}
+
 	private <T> VPackBuilder addInternal(final long tag, final Appender<T> appender, final T value) throws VPackBuilderException {
 		boolean haveReported = false;
-		if (!stack.isEmpty() && !keyWritten) {
+		if (stackSize > 0 && !keyWritten) {
 			reportAdd();
 			haveReported = true;
 		}
@@ -632,7 +1323,7 @@ public class VPackBuilder {
 			}
 			throw e;
 		}
-		return this;
+		return valueAdded();
 	}
 
 	private <T> VPackBuilder addInternal(final String attribute, final Appender<T> appender, final T value)
@@ -643,64 +1334,95 @@ public class VPackBuilder {
 	private <T> VPackBuilder addInternal(final String attribute, final long tag, final Appender<T> appender, final T value)
 			throws VPackBuilderException {
 		if (attribute != null) {
-			boolean haveReported = false;
-			if (!stack.isEmpty()) {
-				final byte head = head();
-				if (head != 0x0b && head != 0x14) {
-					throw new VPackBuilderNeedOpenObjectException();
-				}
-				if (keyWritten) {
-					throw new VPackBuilderKeyAlreadyWrittenException();
-				}
-				reportAdd();
-				haveReported = true;
+			final boolean haveReported = reportAttributeAdd();
+			appendAttribute(attribute);
+			appendKeyValue(haveReported, tag, appender, value);
+		} else {
+			addInternal(tag, appender, value);
+		}
+		return this;
+	}
+
+	private <T> VPackBuilder addInternal(final VPackKey key, final Appender<T> appender, final T value)
+			throws VPackBuilderException {
+		if (key != null) {
+			final boolean haveReported = reportAttributeAdd();
+			appendKey(key);
+			appendKeyValue(haveReported, 0, appender, value);
+		} else {
+			addInternal(appender, value);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the value of an Object member, after its key has been written.
+	 */
+	private <T> void appendKeyValue(final boolean haveReported, final long tag, final Appender<T> appender, final T value)
+			throws VPackBuilderException {
+		try {
+			keyWritten = true;
+
+			if (tag != 0) {
+				appendTag(tag);
 			}
-			try {
-				if (VPackSlice.attributeTranslator != null) {
-					final VPackSlice translate = VPackSlice.attributeTranslator.translate(attribute);
-					if (translate != null) {
-						final byte[] trValue = translate.getBuffer();
-						int trValueLength = translate.getByteSize();
-						int trValueStart = translate.getStart();
-						ensureCapacity(size + trValueLength);
-						for (int i = 0; i < trValueLength; i++) {
-							addUnchecked(trValue[i+trValueStart]);
-						}
-						keyWritten = true;
-						if (value == null) {
-							appendNull();
-						} else {
-							appender.append(this, value);
-						}
-						return this;
-					}
-					// otherwise fall through to regular behavior
-				}
-				STRING.append(this, attribute);
-				keyWritten = true;
 
-				if (tag != 0) {
-					appendTag(tag);
-				}
+			if (value == null) {
+				appendNull();
+			} else {
+				appender.append(this, value);
+			}
+		} catch (final VPackBuilderException e) {
+			// clean up in case of an exception
+			if (haveReported) {
+				cleanupAdd();
+			}
+			throw e;
+		} finally {
+			keyWritten = false;
+		}
+	}
 
-				if (value == null) {
-					appendNull();
-				} else {
-					appender.append(this, value);
-				}
-			} catch (final VPackBuilderException e) {
-				// clean up in case of an exception
-				if (haveReported) {
-					cleanupAdd();
-				}
-				throw e;
-			} finally {
-				keyWritten = false;
+	/**
+	 * Prepares adding a member to the current Object.
+	 *
+	 * @return whether an offset has been reported, which has to be cleaned up in case of an exception
+	 */
+	private boolean reportAttributeAdd() throws VPackBuilderException {
+		if (stackSize == 0) {
+			return false;
+		}
+		final byte head = head();
+		if (head != 0x0b && head != 0x14) {
+			throw new VPackBuilderNeedOpenObjectException();
+		}
+		if (keyWritten) {
+			throw new VPackBuilderKeyAlreadyWrittenException();
+		}
+		reportAdd();
+		return true;
+	}
+
+	private void appendAttribute(final String attribute) {
+		if (VPackSlice.attributeTranslator != null) {
+			final VPackSlice translate = VPackSlice.attributeTranslator.translate(attribute);
+			if (translate != null) {
+				final int trValueLength = translate.getByteSize();
+				ensureCapacity(size + trValueLength);
+				sink.put(size, translate.getBuffer(), translate.getStart(), trValueLength);
+				size += trValueLength;
+				return;
 			}
-		} else {
-			addInternal(tag, appender, value);
+			// otherwise fall through to regular behavior
 		}
-		return this;
+		appendString(attribute);
+	}
+
+	private void appendKey(final VPackKey key) {
+		final byte[] encoded = key.getEncoded();
+		ensureCapacity(size + encoded.length);
+		sink.put(size, encoded, 0, encoded.length);
+		size += encoded.length;
 	}
 
 	private void set(final Value item) throws VPackBuilderException {
@@ -775,6 +1497,49 @@ public class VPackBuilder {
 		append(Double.doubleToRawLongBits(value), DOUBLE_BYTES);
 	}
 
+	private void appendLong(final long value) {
+		if (value <= 9 && value >= -6) {
+			appendSmallInt(value);
+		} else if (options.isUseFixedIntegerWidth()) {
+			ensureCapacity(size + 1 + LONG_BYTES);
+			addUnchecked((byte) 0x27);
+			append(value, LONG_BYTES);
+		} else {
+			appendMinimalInt(value);
+		}
+	}
+
+	private void appendInt(final int value) {
+		if (value <= 9 && value >= -6) {
+			appendSmallInt(value);
+		} else if (options.isUseFixedIntegerWidth()) {
+			ensureCapacity(size + 1 + INTEGER_BYTES);
+			addUnchecked((byte) 0x23);
+			append(value, INTEGER_BYTES);
+		} else {
+			appendMinimalInt(value);
+		}
+	}
+
+	/**
+	 * Appends an integer with the smallest width, as unsigned integer if that is shorter than the signed one.
+	 */
+	private void appendMinimalInt(final long value) {
+		final int width = fixedIntWidth(value, value);
+		if (value > 0) {
+			final int unsignedWidth = (71 - Long.numberOfLeadingZeros(value)) >> 3;
+			if (unsignedWidth < width) {
+				ensureCapacity(size + 1 + unsignedWidth);
+				addUnchecked((byte) (0x27 + unsignedWidth));
+				appendUnchecked(value, unsignedWidth);
+				return;
+			}
+		}
+		ensureCapacity(size + 1 + width);
+		addUnchecked((byte) (0x1f + width));
+		appendUnchecked(value, width);
+	}
+
 	private void appendSmallInt(final long value) {
 		if (value >= 0) {
 			add((byte) (value + 0x30));
@@ -783,6 +1548,41 @@ public class VPackBuilder {
 		}
 	}
 
+	private void appendBigInteger(final BigInteger value) {
+		if (value.bitLength() < Long.SIZE) {
+			appendLong(value.longValue());
+		} else if (value.signum() > 0 && value.bitLength() == Long.SIZE) {
+			ensureCapacity(size + 1 + LONG_BYTES);
+			addUnchecked((byte) 0x2f);
+			appendUnchecked(value.longValue(), LONG_BYTES);
+		} else {
+			appendBCD(value, 0);
+		}
+	}
+
+	/**
+	 * Appends unscaled * 10^exponent as packed BCD: the byte length of the mantissa, a 4 byte little endian exponent
+	 * and the mantissa with two decimal digits per byte, most significant first.
+	 */
+	private void appendBCD(final BigInteger unscaled, final int exponent) {
+		final String digits = unscaled.abs().toString();
+		final int length = (digits.length() + 1) / 2;
+		final int lengthSize = length <= 0xff ? 1 : length <= 0xffff ? 2 : 4;
+		ensureCapacity(size + 1 + lengthSize + INTEGER_BYTES + length);
+		addUnchecked((byte) ((unscaled.signum() < 0 ? 0xd0 : 0xc8) + lengthSize - 1));
+		appendUnchecked(length, lengthSize);
+		appendUnchecked(exponent, INTEGER_BYTES);
+		int i = 0;
+		if (digits.length() % 2 != 0) {
+			// leading zero nibble
+			addUnchecked((byte) (digits.charAt(i++) - '0'));
+		}
+		while (i < digits.length()) {
+			addUnchecked((byte) (((digits.charAt(i) - '0') << 4) | (digits.charAt(i + 1) - '0')));
+			i += 2;
+		}
+	}
+
 	private void appendUInt(final BigInteger value) {
 		add((byte) 0x2f);
 		append(value);
@@ -790,11 +1590,130 @@ public class VPackBuilder {
 
 	private void append(final long value, final int length) {
 		ensureCapacity(size + length);
+		appendUnchecked(value, length);
+	}
+
+	private void appendUnchecked(final long value, final int length) {
+		if (length == LONG_BYTES && buffer != null) {
+			ByteArrayAccess.putLongLE(buffer, size, value);
+			size += LONG_BYTES;
+			return;
+		}
+		if (length == INTEGER_BYTES && buffer != null) {
+			ByteArrayAccess.putIntLE(buffer, size, (int) value);
+			size += INTEGER_BYTES;
+			return;
+		}
 		for (int i = length - 1; i >= 0; i--) {
 			addUnchecked((byte) (value >> (length - i - 1 << 3)));
 		}
 	}
 
+	private void appendLongArray(final long[] values) {
+		if (values == null) {
+			appendNull();
+			return;
+		}
+		if (values.length == 0) {
+			add((byte) 0x01);
+			return;
+		}
+		long min = values[0];
+		long max = values[0];
+		for (final long value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		final int width = fixedIntWidth(min, max);
+		appendFixedWidthArrayHeader(values.length, width == 0 ? 1 : 1 + width);
+		for (final long value : values) {
+			appendFixedWidthInt(value, width);
+		}
+	}
+
+	private void appendIntArray(final int[] values) {
+		if (values == null) {
+			appendNull();
+			return;
+		}
+		if (values.length == 0) {
+			add((byte) 0x01);
+			return;
+		}
+		int min = values[0];
+		int max = values[0];
+		for (final int value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		final int width = fixedIntWidth(min, max);
+		appendFixedWidthArrayHeader(values.length, width == 0 ? 1 : 1 + width);
+		for (final int value : values) {
+			appendFixedWidthInt(value, width);
+		}
+	}
+
+	private void appendDoubleArray(final double[] values) {
+		if (values == null) {
+			appendNull();
+			return;
+		}
+		if (values.length == 0) {
+			add((byte) 0x01);
+			return;
+		}
+		appendFixedWidthArrayHeader(values.length, 1 + DOUBLE_BYTES);
+		for (final double value : values) {
+			addUnchecked((byte) 0x1b);
+			appendUnchecked(Double.doubleToRawLongBits(value), DOUBLE_BYTES);
+		}
+	}
+
+	/**
+	 * @return the byte width of a signed integer able to hold all values between min and max, or 0 if all of them
+	 *         are small integers
+	 */
+	private static int fixedIntWidth(final long min, final long max) {
+		if (min >= -6 && max <= 9) {
+			return 0;
+		}
+		// magnitude of the value needing the most bits besides the sign bit
+		final long magnitude = Math.max(min < 0 ? ~min : min, max < 0 ? ~max : max);
+		final int bits = 65 - Long.numberOfLeadingZeros(magnitude);
+		return (bits + 7) >> 3;
+	}
+
+	private void appendFixedWidthInt(final long value, final int width) {
+		if (width == 0) {
+			addUnchecked((byte) (value >= 0 ? value + 0x30 : value + 0x40));
+		} else {
+			addUnchecked((byte) (0x1f + width));
+			appendUnchecked(value, width);
+		}
+	}
+
+	/**
+	 * Appends the head and byte length of an Array without index table for n members of memberSize bytes each and
+	 * reserves the space for the members.
+	 */
+	private void appendFixedWidthArrayHeader(final int n, final int memberSize) {
+		final long payload = (long) n * memberSize;
+		final int lengthSize;
+		if (payload + 2 <= 0xff) {
+			lengthSize = 1;
+		} else if (payload + 3 <= 0xffff) {
+			lengthSize = 2;
+		} else if (payload + 5 <= 0xffffffffL) {
+			lengthSize = 4;
+		} else {
+			lengthSize = 8;
+		}
+		final long byteSize = 1 + lengthSize + payload;
+		ensureCapacity((int) (size + byteSize));
+		addUnchecked((byte) (0x02 + Integer.numberOfTrailingZeros(lengthSize)));
+		appendUnchecked(byteSize, lengthSize);
+	}
+
 	private void append(final BigInteger value) {
 		ensureCapacity(size + VPackBuilder.LONG_BYTES);
 		for (int i = VPackBuilder.LONG_BYTES - 1; i >= 0; i--) {
@@ -817,31 +1736,60 @@ public class VPackBuilder {
 		append(value.getTime(), LONG_BYTES);
 	}
 
+	/**
+	 * Appends a single char as String, encoding it without creating a String.
+	 */
+	private void appendChar(final char value) {
+		if (Character.isSurrogate(value)) {
+			// unpaired, encoded like the String encoder does
+			appendString(String.valueOf(value));
+		} else if (value < 0x80) {
+			ensureCapacity(size + 2);
+			addUnchecked((byte) 0x41);
+			addUnchecked((byte) value);
+		} else if (value < 0x800) {
+			ensureCapacity(size + 3);
+			addUnchecked((byte) 0x42);
+			addUnchecked((byte) (0xc0 | value >> 6));
+			addUnchecked((byte) (0x80 | value & 0x3f));
+		} else {
+			ensureCapacity(size + 4);
+			addUnchecked((byte) 0x43);
+			addUnchecked((byte) (0xe0 | value >> 12));
+			addUnchecked((byte) (0x80 | value >> 6 & 0x3f));
+			addUnchecked((byte) (0x80 | value & 0x3f));
+		}
+	}
+
 	private void appendString(final String value) {
-		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
-		final int length = bytes.length;
+		final int length = StringUtil.encodedLength(value);
 		if (length <= 126) {
 			// short string
-			add((byte) (0x40 + length));
+			ensureCapacity(size + 1 + length);
+			addUnchecked((byte) (0x40 + length));
 		} else {
 			// long string
-			add((byte) 0xbf);
+			ensureCapacity(size + 1 + LONG_BYTES + length);
+			addUnchecked((byte) 0xbf);
 			appendLength(length);
 		}
-		appendString(bytes);
-	}
-
-	private void appendString(final byte[] bytes) {
-		ensureCapacity(size + bytes.length);
-		System.arraycopy(bytes, 0, buffer, size, bytes.length);
-		size += bytes.length;
+		if (buffer != null) {
+			size = StringUtil.encode(value, buffer, size);
+		} else {
+			if (scratch == null || scratch.length < length) {
+				scratch = new byte[Math.max(length, 64)];
+			}
+			StringUtil.encode(value, scratch, 0);
+			sink.put(size, scratch, 0, length);
+			size += length;
+		}
 	}
 
 	private void appendBinary(final byte[] value) {
 		add((byte) 0xc3);
 		append(value.length, INTEGER_BYTES);
 		ensureCapacity(size + value.length);
-		System.arraycopy(value, 0, buffer, size, value.length);
+		sink.put(size, value, 0, value.length);
 		size += value.length;
 	}
 
@@ -849,7 +1797,7 @@ public class VPackBuilder {
 		final byte[] vpack = value.getBuffer();
 		int length = value.getByteSize();
 		ensureCapacity(size + length);
-		System.arraycopy(vpack, value.getStart(), buffer, size, length);
+		sink.put(size, vpack, value.getStart(), length);
 		size += length;
 	}
 
@@ -862,13 +1810,26 @@ public class VPackBuilder {
 	}
 
 	private void addCompoundValue(final byte head) {
+		addCompoundValue(head, 9);
+	}
+
+	private void addCompoundValue(final byte head, final int headerSize) {
 		// an Array or Object is started:
-		stack.add(size);
-		index.add(stack.size() - 1, new ArrayList<Integer>());
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+			headerSizes = Arrays.copyOf(headerSizes, stackSize * 2);
+			indexStart = Arrays.copyOf(indexStart, stackSize * 2);
+		}
+		stack[stackSize] = size;
+		headerSizes[stackSize] = headerSize;
+		indexStart[stackSize] = indexSize;
+		stackSize++;
 		add(head);
 		// Will be filled later with bytelength and nr subs
-		size += 8;
-		ensureCapacity(size);
+		ensureCapacity(size + headerSize - 1);
+		for (int i = 1; i < headerSize; i++) {
+			put(size++, (byte) 0);
+		}
 	}
 
 	private void appendLength(final long length) {
@@ -876,13 +1837,22 @@ public class VPackBuilder {
 	}
 
 	private void reportAdd() {
-		final Collection<Integer> depth = index.get(stack.size() - 1);
-		depth.add(size - stack.get(stack.size() - 1));
+		if (indexSize == index.length) {
+			index = Arrays.copyOf(index, indexSize * 2);
+		}
+		index[indexSize++] = size - stack[stackSize - 1];
 	}
 
 	private void cleanupAdd() {
-		final List<Integer> depth = index.get(stack.size() - 1);
-		depth.remove(depth.size() - 1);
+		indexSize--;
+	}
+
+	private void popStack() {
+		stackSize--;
+		indexSize = indexStart[stackSize];
+		if (stackSize == 0) {
+			topLevelValueCompleted();
+		}
 	}
 
 	public VPackBuilder close() throws VPackBuilderException {
@@ -900,30 +1870,36 @@ public class VPackBuilder {
 		}
 		final byte head = head();
 		final boolean isArray = head == 0x06 || head == 0x13;
-		final List<Integer> in = index.get(stack.size() - 1);
-		final int tos = stack.get(stack.size() - 1);
-		if (in.isEmpty()) {
+		final int tos = stack[stackSize - 1];
+		final int in = indexStart[stackSize - 1];
+		final int n = indexSize - in;
+		if (n == 0) {
 			return closeEmptyArrayOrObject(tos, isArray);
 		}
+		final int headerSize = headerSizes[stackSize - 1];
+		if (headerSize < 9) {
+			return closeSized(tos, in, n, isArray, sort, headerSize);
+		}
 		if (head == 0x13 || head == 0x14 || (head == 0x06 && options.isBuildUnindexedArrays())
-				|| head == 0x0b && (options.isBuildUnindexedObjects() || in.size() == 1)) {
-			if (closeCompactArrayOrObject(tos, isArray, in)) {
+				|| head == 0x0b && (options.isBuildUnindexedObjects() || n == 1)) {
+			if (closeCompactArrayOrObject(tos, isArray, n)) {
 				return this;
 			}
 			// This might fall through, if closeCompactArrayOrObject gave up!
 		}
 		if (isArray) {
-			return closeArray(tos, in);
+			return closeArray(tos, in, n);
 		}
 		// fix head byte in case a compact Array / Object was originally
 		// requested
-		buffer[tos] = (byte) 0x0b;
+		put(tos, (byte) 0x0b);
 
 		// First determine byte length and its format:
+		final boolean padding = keepPadding(tos);
 		final int offsetSize;
 		// can be 1, 2, 4 or 8 for the byte width of the offsets,
 		// the byte length and the number of subvalues:
-		if (size - tos + in.size() - 6 <= 0xff) {
+		if (size - tos + n - (padding ? 0 : 6) <= 0xff) {
 			// We have so far used _pos - tos bytes, including the reserved 8
 			// bytes for byte length and number of subvalues. In the 1-byte
 			// number
@@ -931,23 +1907,18 @@ public class VPackBuilder {
 			// subvalue
 			// for the index table
 			offsetSize = 1;
-		} else if ((size - tos) + 2 * in.size() <= 0xffff) {
+		} else if ((size - tos) + 2 * n <= 0xffff) {
 			offsetSize = 2;
 		} else {
 			offsetSize = 4;
 		}
 		// Maybe we need to move down data
-		if (offsetSize == 1) {
+		if (offsetSize == 1 && !padding) {
 			final int targetPos = 3;
-			if ((size - 1) > (tos + 9)) {
-				for (int i = tos + targetPos; i < tos + 9; i++) {
-					remove(tos + targetPos);
-				}
-			}
+			shrinkHeader(tos, targetPos);
 			final int diff = 9 - targetPos;
-			final int n = in.size();
-			for (int i = 0; i < n; i++) {
-				in.set(i, in.get(i) - diff);
+			for (int i = in; i < indexSize; i++) {
+				index[i] -= diff;
 			}
 		}
 		// One could move down things in the offsetSize == 2 case as well,
@@ -955,56 +1926,47 @@ public class VPackBuilder {
 		// 4 bytes has been sacrificed on the Altar of Performance.
 
 		// Now build the table:
-		if (sort && in.size() >= 2) {
+		if (sort && n >= 2) {
 			// Object
-			sortObjectIndex(tos, in);
-		}
-		// final int tableBase = size;
-		for (long x : in) {
-			ensureCapacity(size + offsetSize);
-			for (int j = 0; j < offsetSize; j++) {
-				addUnchecked(/* tableBase + offsetSize * i + j, */ (byte) (x & 0xff));
-				x >>= 8;
-			}
+			sortObjectIndex(tos, in, n);
 		}
+		appendIndexTable(in, offsetSize);
 		// Finally fix the byte width in the type byte:
 		if (offsetSize > 1) {
 			if (offsetSize == 2) {
-				buffer[tos] = (byte) (buffer[tos] + 1);
+				put(tos, (byte) (get(tos) + 1));
 			} else {
-				buffer[tos] = (byte) (buffer[tos] + 2);
+				put(tos, (byte) (get(tos) + 2));
 			}
 		}
 		// Fix the byte length in the beginning
 		long x = size - tos;
 		for (int i = 1; i <= offsetSize; i++) {
-			buffer[tos + i] = (byte) (x & 0xff);
+			put(tos + i, (byte) (x & 0xff));
 			x >>= 8;
 		}
 		// set the number of items in the beginning
-		x = in.size();
+		x = n;
 		for (int i = offsetSize + 1; i <= 2 * offsetSize; i++) {
-			buffer[tos + i] = (byte) (x & 0xff);
+			put(tos + i, (byte) (x & 0xff));
 			x >>= 8;
 		}
-		stack.remove(stack.size() - 1);
+		popStack();
 		return this;
 	}
 
 	private VPackBuilder closeEmptyArrayOrObject(final int tos, final boolean isArray) {
 		// empty Array or Object
-		buffer[tos] = (byte) (isArray ? 0x01 : 0x0a);
+		put(tos, (byte) (isArray ? 0x01 : 0x0a));
 		// no bytelength and number subvalues needed
-		for (int i = 1; i <= 8; i++) {
-			remove(tos + 1);
-		}
-		stack.remove(stack.size() - 1);
+		size = tos + 1;
+		popStack();
 		return this;
 	}
 
-	private boolean closeCompactArrayOrObject(final int tos, final boolean isArray, final List<Integer> in) {
+	private boolean closeCompactArrayOrObject(final int tos, final boolean isArray, final int n) {
 		// use the compact Array / Object format
-		final long nLen = NumberUtil.getVariableValueLength(in.size());
+		final long nLen = NumberUtil.getVariableValueLength(n);
 		long byteSize = size - (tos + 8) + nLen;
 		long bLen = NumberUtil.getVariableValueLength(byteSize);
 		byteSize += bLen;
@@ -1015,13 +1977,8 @@ public class VPackBuilder {
 		if (bLen < 9) {
 			// can only use compact notation if total byte length is at most
 			// 8 bytes long
-			buffer[tos] = (byte) (isArray ? 0x13 : 0x14);
-			final int targetPos = (int) (1 + bLen);
-			if (size - 1 >= (tos + 9)) {
-				for (int i = tos + targetPos; i < tos + 9; i++) {
-					remove(tos + targetPos);
-				}
-			}
+			put(tos, (byte) (isArray ? 0x13 : 0x14));
+			shrinkHeader(tos, (int) (1 + bLen));
 			// store byte length
 			storeVariableValueLength(tos, byteSize, false);
 			// need additional memory for storing the number of values
@@ -1029,9 +1986,9 @@ public class VPackBuilder {
 				ensureCapacity((int) (size + nLen));
 			}
 			// store number of values
-			storeVariableValueLength((int) (tos + byteSize), in.size(), true);
+			storeVariableValueLength((int) (tos + byteSize), n, true);
 			size += nLen;
-			stack.remove(stack.size() - 1);
+			popStack();
 			return true;
 		}
 		return false;
@@ -1042,56 +1999,126 @@ public class VPackBuilder {
 		long val = value;
 		if (reverse) {
 			while (val >= 0x80) {
-				buffer[--i] = (byte) ((byte) (val & 0x7f) | (byte) 0x80);
+				put(--i, (byte) ((byte) (val & 0x7f) | (byte) 0x80));
 				val >>= 7;
 			}
-			buffer[--i] = (byte) (val & 0x7f);
+			put(--i, (byte) (val & 0x7f));
 		} else {
 			while (val >= 0x80) {
-				buffer[++i] = (byte) ((byte) (val & 0x7f) | (byte) 0x80);
+				put(++i, (byte) ((byte) (val & 0x7f) | (byte) 0x80));
 				val >>= 7;
 			}
-			buffer[++i] = (byte) (val & 0x7f);
+			put(++i, (byte) (val & 0x7f));
 		}
 	}
 
-	private VPackBuilder closeArray(final int tos, final List<Integer> in) {
-		// fix head byte in case a compact Array was originally
-		// requested
-		buffer[tos] = (byte) 0x06;
-
-		boolean needIndexTable = true;
-		boolean needNrSubs = true;
-		final int n = in.size();
+	/**
+	 * @return whether all n members of the Array at tos have the same byte size
+	 */
+	private boolean isEqualSize(final int tos, final int in, final int n) {
 		if (n == 1) {
-			needIndexTable = false;
-			needNrSubs = false;
-		} else if ((size - tos) - in.get(0) == n * (in.get(1) - in.get(0))) {
-			// In this case it could be that all entries have the same length
-			// and we do not need an offset table at all:
-			boolean noTable = true;
-			final int subLen = in.get(1) - in.get(0);
-			if ((size - tos) - in.get(n - 1) != subLen) {
-				noTable = false;
+			return true;
+		}
+		final int subLen = index[in + 1] - index[in];
+		if ((size - tos) - index[in] != n * subLen || (size - tos) - index[in + n - 1] != subLen) {
+			return false;
+		}
+		for (int i = in + 1; i < in + n - 1; i++) {
+			if (index[i + 1] - index[i] != subLen) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Closes an Array or Object opened with a reserved header of less than 9 bytes. The members stay where they are
+	 * if the reserved header fits, otherwise they are moved up once.
+	 */
+	private VPackBuilder closeSized(
+		final int tos,
+		final int in,
+		final int n,
+		final boolean isArray,
+		final boolean sort,
+		final int reserved) throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
+		final boolean needIndexTable = !isArray || !isEqualSize(tos, in, n);
+		final long payload = size - (tos + reserved);
+		// smallest byte width of length, number of members and offsets
+		int offsetSize;
+		if (needIndexTable) {
+			if (3 + payload + n <= 0xff) {
+				offsetSize = 1;
+			} else if (5 + payload + 2 * n <= 0xffff) {
+				offsetSize = 2;
 			} else {
-				for (int i = 1; i < n - 1; i++) {
-					if (in.get(i + 1) - in.get(i) != subLen) {
-						noTable = false;
-						break;
-					}
-				}
+				offsetSize = 4;
+			}
+		} else {
+			if (2 + payload <= 0xff) {
+				offsetSize = 1;
+			} else if (3 + payload <= 0xffff) {
+				offsetSize = 2;
+			} else {
+				offsetSize = 4;
+			}
+		}
+		final int headerSize = needIndexTable ? 1 + 2 * offsetSize : 1 + offsetSize;
+		if (headerSize < reserved) {
+			// estimate too large: use wider offsets filling the reserved header
+			offsetSize = needIndexTable ? (reserved - 1) / 2 : reserved - 1;
+		} else if (headerSize > reserved) {
+			// estimate too small: make room for the header
+			final int diff = headerSize - reserved;
+			ensureCapacity(size + diff);
+			sink.move(tos + reserved, tos + headerSize, (int) payload);
+			size += diff;
+			for (int i = in; i < indexSize; i++) {
+				index[i] += diff;
+			}
+		}
+		final int widthBits = Integer.numberOfTrailingZeros(offsetSize);
+		if (needIndexTable) {
+			if (!isArray && sort && n >= 2) {
+				sortObjectIndex(tos, in, n);
 			}
-			if (noTable) {
-				needIndexTable = false;
-				needNrSubs = false;
+			appendIndexTable(in, offsetSize);
+			put(tos, (byte) ((isArray ? 0x06 : 0x0b) + widthBits));
+		} else {
+			put(tos, (byte) (0x02 + widthBits));
+		}
+		// byte length and number of members
+		long x = size - tos;
+		for (int i = 1; i <= offsetSize; i++) {
+			put(tos + i, (byte) (x & 0xff));
+			x >>= 8;
+		}
+		if (needIndexTable) {
+			x = n;
+			for (int i = offsetSize + 1; i <= 2 * offsetSize; i++) {
+				put(tos + i, (byte) (x & 0xff));
+				x >>= 8;
 			}
 		}
+		popStack();
+		return this;
+	}
+
+	private VPackBuilder closeArray(final int tos, final int in, final int n) {
+		// fix head byte in case a compact Array was originally
+		// requested
+		put(tos, (byte) 0x06);
+
+		// if all entries have the same length, we do not need an offset table at all
+		final boolean needIndexTable = !isEqualSize(tos, in, n);
+		final boolean needNrSubs = needIndexTable;
 
 		// First determine byte length and its format:
+		final boolean padding = keepPadding(tos);
 		final int offsetSize;
 		// can be 1, 2, 4 or 8 for the byte width of the offsets,
 		// the byte length and the number of subvalues:
-		if ((size - tos) + (needIndexTable ? n : 0) - (needNrSubs ? 6 : 7) <= 0xff) {
+		if ((size - tos) + (needIndexTable ? n : 0) - (padding ? 0 : needNrSubs ? 6 : 7) <= 0xff) {
 			// We have so far used _pos - tos bytes, including the reserved 8
 			// bytes for byte length and number of subvalues. In the 1-byte
 			// number
@@ -1105,20 +2132,16 @@ public class VPackBuilder {
 			offsetSize = 4;
 		}
 		// Maybe we need to move down data
-		if (offsetSize == 1) {
+		if (offsetSize == 1 && !padding) {
 			int targetPos = 3;
 			if (!needIndexTable) {
 				targetPos = 2;
 			}
-			if ((size - 1) > (tos + 9)) {
-				for (int i = tos + targetPos; i < tos + 9; i++) {
-					remove(tos + targetPos);
-				}
-			}
+			shrinkHeader(tos, targetPos);
 			final int diff = 9 - targetPos;
 			if (needIndexTable) {
-				for (int i = 0; i < n; i++) {
-					in.set(i, in.get(i) - diff);
+				for (int i = in; i < indexSize; i++) {
+					index[i] -= diff;
 				}
 			} // Note: if !needIndexTable the index is now wrong!
 		}
@@ -1128,71 +2151,250 @@ public class VPackBuilder {
 
 		// Now build the table:
 		if (needIndexTable) {
-			// final int tableBase = size;
-			for (long x : in) {
-				ensureCapacity(size + offsetSize);
-				for (int j = 0; j < offsetSize; j++) {
-					addUnchecked(/* tableBase + offsetSize * i + j, */ (byte) (x & 0xff));
-					x >>= 8;
-				}
-			}
+			appendIndexTable(in, offsetSize);
 		} else { // no index table
-			buffer[tos] = (byte) 0x02;
+			put(tos, (byte) 0x02);
 		}
 		// Finally fix the byte width in the type byte:
 		if (offsetSize > 1) {
 			if (offsetSize == 2) {
-				buffer[tos] = (byte) (buffer[tos] + 1);
+				put(tos, (byte) (get(tos) + 1));
 			} else {
-				buffer[tos] = (byte) (buffer[tos] + 2);
+				put(tos, (byte) (get(tos) + 2));
 			}
 		}
 		// Fix the byte length in the beginning
 		long x = size - tos;
 		for (int i = 1; i <= offsetSize; i++) {
-			buffer[tos + i] = (byte) (x & 0xff);
+			put(tos + i, (byte) (x & 0xff));
 			x >>= 8;
 		}
 		// set the number of items in the beginning
 		if (needNrSubs) {
 			x = n;
 			for (int i = offsetSize + 1; i <= 2 * offsetSize; i++) {
-				buffer[tos + i] = (byte) (x & 0xff);
+				put(tos + i, (byte) (x & 0xff));
 				x >>= 8;
 			}
 		}
-		stack.remove(stack.size() - 1);
+		popStack();
 		return this;
 	}
 
-	private static class SortEntry {
-		private final VPackStringSlice slice;
-		private final int offset;
-
-		public SortEntry(final VPackStringSlice slice, final int offset) {
-			super();
-			this.slice = slice;
-			this.offset = offset;
+	private void appendIndexTable(final int in, final int offsetSize) {
+		ensureCapacity(size + (indexSize - in) * offsetSize);
+		for (int i = in; i < indexSize; i++) {
+			long x = index[i];
+			for (int j = 0; j < offsetSize; j++) {
+				addUnchecked((byte) (x & 0xff));
+				x >>= 8;
+			}
 		}
 	}
 
-	private void sortObjectIndex(final int start, final List<Integer> offsets)
+	private void sortObjectIndex(final int start, final int in, final int n)
 			throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
-		VPackBuilder.SortEntry[] attributes = new VPackBuilder.SortEntry[offsets.size()];
-		for (int i = 0; i < offsets.size(); i++) {
-			Integer offset = offsets.get(i);
-			attributes[i] = new SortEntry(new VPackSlice(buffer, start + offset).makeKey().getAsStringSlice(), offset);
-		}
-		final Comparator<SortEntry> comparator = new Comparator<SortEntry>() {
-			@Override
-			public int compare(final SortEntry o1, final SortEntry o2) {
-				return o1.slice.compareTo(o2.slice);
+		if (keySorter == null) {
+			keySorter = new KeySorter();
+		}
+		keySorter.sort(sink, start, index, in, n);
+	}
+
+	/**
+	 * Sorts the member offsets of an Object by the unsigned bytes of their keys, in place and without allocations
+	 * for String keys. The first 8 bytes of every key are cached as an unsigned big-endian prefix, so most
+	 * comparisons do not touch the buffer at all. Keys which are already in order are detected in a single pass.
+	 */
+	private static final class KeySorter {
+
+		private static final int INSERTION_SORT_THRESHOLD = 16;
+
+		private int[] offsets = new int[0];
+		private long[] prefixes = new long[0];
+		private byte[][] arrays = new byte[0][];
+		private int[] starts = new int[0];
+		private int[] lengths = new int[0];
+		private int[] order = new int[0];
+		private int[] temp = new int[0];
+		private byte[] keyBytes; // copies of the keys of a sink without array
+		private int keyBytesSize;
+
+		void sort(final VPackSink sink, final int start, final int[] index, final int in, final int n)
+				throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
+			ensureCapacity(n);
+			keyBytesSize = 0;
+			for (int i = 0; i < n; i++) {
+				final int offset = index[in + i];
+				offsets[i] = offset;
+				if (sink.hasArray()) {
+					setKey(i, sink.array(), start + offset);
+				} else {
+					setKey(i, sink, start + offset);
+				}
+			}
+			try {
+				if (isSorted(n)) {
+					return;
+				}
+				for (int i = 0; i < n; i++) {
+					order[i] = i;
+				}
+				if (n <= INSERTION_SORT_THRESHOLD) {
+					insertionSort(0, n);
+				} else {
+					mergeSort(0, n);
+				}
+				for (int i = 0; i < n; i++) {
+					index[in + i] = offsets[order[i]];
+				}
+			} finally {
+				// do not keep the buffer of the builder or translations alive
+				Arrays.fill(arrays, 0, n, null);
+			}
+		}
+
+		private void ensureCapacity(final int n) {
+			if (offsets.length < n) {
+				final int capacity = Math.max(n, offsets.length * 2);
+				offsets = new int[capacity];
+				prefixes = new long[capacity];
+				arrays = new byte[capacity][];
+				starts = new int[capacity];
+				lengths = new int[capacity];
+				order = new int[capacity];
+				temp = new int[capacity];
+			}
+		}
+
+		/**
+		 * Copies the key at the given position of the sink into keyBytes and reads it from there.
+		 */
+		private void setKey(final int i, final VPackSink sink, final int pos)
+				throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
+			final int head = sink.get(pos) & 0xff;
+			final int byteSize;
+			if (head >= 0x40 && head <= 0xbe) {
+				byteSize = 1 + head - 0x40;
+			} else if (head == 0xbf) {
+				long length = 0;
+				for (int j = LONG_BYTES; j > 0; j--) {
+					length = (length << 8) | (sink.get(pos + j) & 0xff);
+				}
+				byteSize = 1 + LONG_BYTES + (int) length;
+			} else if (head >= 0x20 && head <= 0x27) {
+				byteSize = 1 + head - 0x1f;
+			} else if (head >= 0x28 && head <= 0x2f) {
+				byteSize = 1 + head - 0x27;
+			} else {
+				byteSize = 1;
+			}
+			if (keyBytes == null || keyBytes.length < keyBytesSize + byteSize) {
+				final byte[] old = keyBytes;
+				keyBytes = new byte[Math.max(keyBytesSize + byteSize, keyBytesSize * 2)];
+				if (old != null) {
+					System.arraycopy(old, 0, keyBytes, 0, keyBytesSize);
+					for (int j = 0; j < i; j++) {
+						if (arrays[j] == old) {
+							arrays[j] = keyBytes;
+						}
+					}
+				}
+			}
+			sink.get(pos, keyBytes, keyBytesSize, byteSize);
+			setKey(i, keyBytes, keyBytesSize);
+			keyBytesSize += byteSize;
+		}
+
+		private void setKey(final int i, final byte[] buffer, final int pos)
+				throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
+			final int head = buffer[pos] & 0xff;
+			if (head >= 0x40 && head <= 0xbe) {
+				setKey(i, buffer, pos + 1, head - 0x40);
+			} else if (head == 0xbf) {
+				setKey(i, buffer, pos + 9, (int) NumberUtil.toLong(buffer, pos + 1, 8));
+			} else {
+				// translated attribute
+				final VPackSlice key = new VPackSlice(buffer, pos).makeKey();
+				if (!key.isString()) {
+					throw new VPackValueTypeException(ValueType.STRING);
+				}
+				setKey(i, key.getBuffer(), key.getStart());
+			}
+		}
+
+		private void setKey(final int i, final byte[] array, final int start, final int length) {
+			arrays[i] = array;
+			starts[i] = start;
+			lengths[i] = length;
+			long prefix = 0;
+			final int prefixLength = Math.min(length, LONG_BYTES);
+			for (int j = 0; j < prefixLength; j++) {
+				prefix = (prefix << 8) | (array[start + j] & 0xff);
+			}
+			prefixes[i] = prefix << (8 * (LONG_BYTES - prefixLength));
+		}
+
+		private int compare(final int a, final int b) {
+			final int c = Long.compareUnsigned(prefixes[a], prefixes[b]);
+			if (c != 0) {
+				return c;
+			}
+			final byte[] arrayA = arrays[a];
+			final byte[] arrayB = arrays[b];
+			final int startA = starts[a];
+			final int startB = starts[b];
+			final int lengthA = lengths[a];
+			final int lengthB = lengths[b];
+			if (lengthA <= LONG_BYTES || lengthB <= LONG_BYTES) {
+				// equal prefixes cover the shorter key entirely
+				return lengthA - lengthB;
+			}
+			return ByteArrayAccess.compareUnsigned(arrayA, startA + LONG_BYTES, lengthA - LONG_BYTES, arrayB,
+				startB + LONG_BYTES, lengthB - LONG_BYTES);
+		}
+
+		private boolean isSorted(final int n) {
+			for (int i = 1; i < n; i++) {
+				if (compare(i - 1, i) > 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void insertionSort(final int from, final int to) {
+			for (int i = from + 1; i < to; i++) {
+				final int member = order[i];
+				int j = i - 1;
+				while (j >= from && compare(order[j], member) > 0) {
+					order[j + 1] = order[j];
+					j--;
+				}
+				order[j + 1] = member;
+			}
+		}
+
+		private void mergeSort(final int from, final int to) {
+			if (to - from <= INSERTION_SORT_THRESHOLD) {
+				insertionSort(from, to);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			mergeSort(from, mid);
+			mergeSort(mid, to);
+			if (compare(order[mid - 1], order[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(order, from, temp, from, to - from);
+			int left = from;
+			int right = mid;
+			for (int i = from; i < to; i++) {
+				if (right >= to || (left < mid && compare(temp[left], temp[right]) <= 0)) {
+					order[i] = temp[left++];
+				} else {
+					order[i] = temp[right++];
+				}
 			}
-		};
-		Arrays.sort(attributes, comparator);
-		offsets.clear();
-		for (final SortEntry sortEntry : attributes) {
-			offsets.add(sortEntry.offset);
 		}
 	}
 
@@ -1203,13 +2405,9 @@ public class VPackBuilder {
 		final byte[] b2,
 		final int b2Index,
 		final int b2Length) {
-		final int commonLength = Math.min(b1Length, b2Length);
-		for (int i = 0; i < commonLength; i++) {
-			final byte byte1 = b1[b1Index + i];
-			final byte byte2 = b2[b2Index + i];
-			if (byte1 != byte2) {
-				return (byte1 < byte2) ? -1 : 1;
-			}
+		final int i = ByteArrayAccess.mismatch(b1, b1Index, b2, b2Index, Math.min(b1Length, b2Length));
+		if (i >= 0) {
+			return (b1[b1Index + i] < b2[b2Index + i]) ? -1 : 1;
 		}
 		if (b1Length != b2Length) {
 			return (b1Length < b2Length) ? -2 : 2;
@@ -1218,16 +2416,23 @@ public class VPackBuilder {
 	}
 
 	private boolean isClosed() {
-		return stack.isEmpty();
+		return stackSize == 0;
 	}
 
 	private byte head() {
-		final Integer in = stack.get(stack.size() - 1);
-		return buffer[in];
+		return get(stack[stackSize - 1]);
 	}
 
+	/**
+	 * @return a slice of the built value. If the sink is not backed by an array, the value is copied.
+	 */
 	public VPackSlice slice() {
-		return new VPackSlice(buffer);
+		if (sink.hasArray()) {
+			return new VPackSlice(sink.array());
+		}
+		final byte[] copy = new byte[Math.max(size, 1)];
+		sink.get(0, copy, 0, size);
+		return new VPackSlice(copy);
 	}
 
 	public int getVpackSize() {
@@ -0,0 +1,121 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+
+/**
+ * A bounded, thread-safe pool of pre-sized {@link VPackBuilder}s. The pool holds at most {@code maxSize} idle
+ * builders in a striped array of slots, so that concurrent threads mostly touch different slots. Builders whose buffer
+ * has grown beyond {@code maxRetainedCapacity} are not taken back, so that their buffer can be garbage collected.
+ *
+ * Builders are handed out with their own {@link DefaultVPackBuilderOptions}. Options changed on a borrowed builder
+ * are restored to their defaults when it is returned to the pool, so that every acquired builder behaves like a new
+ * one.
+ */
+public class VPackBuilderPool {
+
+	private final AtomicReferenceArray<VPackBuilder> slots;
+	private final int initialCapacity;
+	private final int maxRetainedCapacity;
+
+	/**
+	 * @param maxSize
+	 *            maximum number of idle builders kept by the pool
+	 * @param initialCapacity
+	 *            initial buffer size in bytes of newly created builders
+	 * @param maxRetainedCapacity
+	 *            builders with a buffer larger than this (in bytes) are released instead of being pooled
+	 */
+	public VPackBuilderPool(final int maxSize, final int initialCapacity, final int maxRetainedCapacity) {
+		super();
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be positive");
+		}
+		if (maxRetainedCapacity < initialCapacity) {
+			throw new IllegalArgumentException("maxRetainedCapacity must not be smaller than initialCapacity");
+		}
+		slots = new AtomicReferenceArray<>(maxSize);
+		this.initialCapacity = initialCapacity;
+		this.maxRetainedCapacity = maxRetainedCapacity;
+	}
+
+	/**
+	 * @return an empty builder, either an idle one from the pool or a newly created one
+	 */
+	public VPackBuilder acquire() {
+		final int n = slots.length();
+		final int start = probe(n);
+		for (int i = 0; i < n; i++) {
+			final int slot = (start + i) % n;
+			final VPackBuilder builder = slots.get(slot);
+			if (builder != null && slots.compareAndSet(slot, builder, null)) {
+				return builder;
+			}
+		}
+		return new VPackBuilder(new DefaultVPackBuilderOptions(), initialCapacity);
+	}
+
+	/**
+	 * Returns a builder to the pool. The builder and its options are reset and must not be used by the caller anymore,
+	 * neither must slices obtained from it. It is dropped if its buffer exceeds the maximum retained capacity or the
+	 * pool is full.
+	 *
+	 * @param builder
+	 *            builder obtained by {@link #acquire()}
+	 */
+	public void release(final VPackBuilder builder) {
+		if (builder.getCapacity() > maxRetainedCapacity
+				|| !(builder.getOptions() instanceof DefaultVPackBuilderOptions)) {
+			return;
+		}
+		builder.reset();
+		((DefaultVPackBuilderOptions) builder.getOptions()).reset();
+		final int n = slots.length();
+		final int start = probe(n);
+		for (int i = 0; i < n; i++) {
+			final int slot = (start + i) % n;
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, builder)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of idle builders currently held by the pool
+	 */
+	public int getIdleCount() {
+		int count = 0;
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int probe(final int n) {
+		return (int) (Thread.currentThread().getId() % n);
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link VPackSink} writing into a {@link ByteBuffer}, for example a direct buffer which is handed to a socket
+ * afterwards without copying.
+ * <p>
+ * A sink created from a caller supplied buffer has a fixed capacity. A sink created with an {@link Allocator} grows
+ * by allocating a larger buffer, copying the content and releasing the old buffer to the allocator.
+ */
+public class VPackByteBufferSink implements VPackSink {
+
+	/**
+	 * Source of the buffers of a growable {@link VPackByteBufferSink}, e.g. a pool of direct buffers.
+	 */
+	public interface Allocator {
+
+		/**
+		 * @return a buffer with at least the given capacity
+		 */
+		ByteBuffer allocate(int capacity);
+
+		/**
+		 * Takes back a buffer which is not used by the sink anymore.
+		 */
+		void release(ByteBuffer buffer);
+
+	}
+
+	/**
+	 * Allocates new direct buffers and leaves released ones to the garbage collector.
+	 */
+	public static final Allocator DIRECT = new Allocator() {
+		@Override
+		public ByteBuffer allocate(final int capacity) {
+			return ByteBuffer.allocateDirect(capacity);
+		}
+
+		@Override
+		public void release(final ByteBuffer buffer) {
+		}
+	};
+
+	private static final int COPY_CHUNK_SIZE = 256;
+
+	private final Allocator allocator;
+	private ByteBuffer buffer;
+	private ByteBuffer view; // duplicate of buffer for relative bulk access
+	private byte[] chunk;
+
+	/**
+	 * Creates a sink with fixed capacity writing into the remaining bytes of the given buffer. Position 0 of the sink
+	 * is the current position of the buffer. The position and limit of the given buffer are not changed.
+	 *
+	 * @param buffer
+	 *            buffer to write into
+	 */
+	public VPackByteBufferSink(final ByteBuffer buffer) {
+		super();
+		allocator = null;
+		setBuffer(buffer.slice());
+	}
+
+	/**
+	 * Creates a growable sink taking its buffers from the given allocator.
+	 *
+	 * @param allocator
+	 *            source of buffers
+	 * @param initialCapacity
+	 *            initial capacity in bytes
+	 */
+	public VPackByteBufferSink(final Allocator allocator, final int initialCapacity) {
+		super();
+		this.allocator = allocator;
+		setBuffer(allocator.allocate(Math.max(initialCapacity, 1)));
+	}
+
+	private void setBuffer(final ByteBuffer buffer) {
+		this.buffer = buffer;
+		view = buffer.duplicate();
+	}
+
+	/**
+	 * @param length
+	 *            number of bytes written, see {@link VPackBuilder#getVpackSize()}
+	 * @return a view of the first length bytes of this sink, ready to be read or written to a channel
+	 */
+	public ByteBuffer toByteBuffer(final int length) {
+		final ByteBuffer result = buffer.duplicate();
+		((Buffer) result).position(0);
+		((Buffer) result).limit(length);
+		return result;
+	}
+
+	/**
+	 * Hands the current buffer back to the allocator. The sink must not be used afterwards.
+	 */
+	public void release() {
+		if (allocator != null) {
+			allocator.release(buffer);
+		}
+		buffer = null;
+		view = null;
+	}
+
+	@Override
+	public void ensureCapacity(final int minCapacity) {
+		final int oldCapacity = buffer.capacity();
+		if (minCapacity > oldCapacity) {
+			if (allocator == null) {
+				throw new BufferOverflowException();
+			}
+			int newCapacity = (oldCapacity * 3) / 2 + 1;
+			if (newCapacity < minCapacity) {
+				newCapacity = minCapacity;
+			}
+			final ByteBuffer oldBuffer = buffer;
+			final ByteBuffer newBuffer = allocator.allocate(newCapacity);
+			final ByteBuffer source = oldBuffer.duplicate();
+			((Buffer) source).clear();
+			((Buffer) newBuffer).clear();
+			newBuffer.put(source);
+			((Buffer) newBuffer).clear();
+			setBuffer(newBuffer);
+			allocator.release(oldBuffer);
+		}
+	}
+
+	@Override
+	public int capacity() {
+		return buffer.capacity();
+	}
+
+	@Override
+	public byte get(final int index) {
+		return buffer.get(index);
+	}
+
+	@Override
+	public void put(final int index, final byte b) {
+		buffer.put(index, b);
+	}
+
+	@Override
+	public void get(final int index, final byte[] dst, final int offset, final int length) {
+		((Buffer) view).limit(view.capacity()).position(index);
+		view.get(dst, offset, length);
+	}
+
+	@Override
+	public void put(final int index, final byte[] src, final int offset, final int length) {
+		((Buffer) view).limit(view.capacity()).position(index);
+		view.put(src, offset, length);
+	}
+
+	@Override
+	public void move(final int from, final int to, final int length) {
+		if (chunk == null) {
+			chunk = new byte[COPY_CHUNK_SIZE];
+		}
+		if (to < from) {
+			for (int done = 0; done < length; done += COPY_CHUNK_SIZE) {
+				final int n = Math.min(COPY_CHUNK_SIZE, length - done);
+				get(from + done, chunk, 0, n);
+				put(to + done, chunk, 0, n);
+			}
+		} else if (to > from) {
+			for (int remaining = length; remaining > 0; remaining -= COPY_CHUNK_SIZE) {
+				final int n = Math.min(COPY_CHUNK_SIZE, remaining);
+				get(from + remaining - n, chunk, 0, n);
+				put(to + remaining - n, chunk, 0, n);
+			}
+		}
+	}
+
+	@Override
+	public boolean hasArray() {
+		return false;
+	}
+
+	@Override
+	public byte[] array() {
+		throw new UnsupportedOperationException();
+	}
+
+}
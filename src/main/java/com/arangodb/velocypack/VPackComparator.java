@@ -0,0 +1,469 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.arangodb.velocypack.exception.VPackValueTypeException;
+import com.arangodb.velocypack.internal.util.ByteArrayAccess;
+import com.arangodb.velocypack.internal.util.NumberUtil;
+import com.arangodb.velocypack.internal.util.ValueHeadUtil;
+
+/**
+ * Compares values by their meaning instead of their encoding, following the order of values in AQL:
+ *
+ * <pre>
+ * MinKey &lt; None &lt; null &lt; bool &lt; number &lt; UTCDate &lt; String &lt; Array &lt; Object &lt; other &lt; MaxKey
+ * </pre>
+ *
+ * Numbers compare exactly by value across Int, UInt, SmallInt and Double (with -0.0 equal to 0.0 and NaN greater
+ * than every other number), Strings by their UTF-8 bytes, which is the order of their code points, and Arrays member
+ * by member, where a prefix is less than the longer Array. Objects compare by the values of the union of their keys
+ * in key order, a missing member counting as null, and translated keys compare like their names. Binary, Custom,
+ * External, Tagged and Illegal values compare by their bytes.
+ *
+ * The comparison works on the bytes and creates no intermediate slices. The keys of compact or unsorted Objects are
+ * put in order in a per-thread buffer that only grows, so only BCD numbers need allocations. Equal values according to
+ * this comparator have equal {@link VPackSlice#normalizedHash()}.
+ */
+public final class VPackComparator implements Comparator<VPackSlice> {
+
+	public static final VPackComparator INSTANCE = new VPackComparator();
+
+	private static final int WEIGHT_MIN_KEY = 0;
+	private static final int WEIGHT_NONE = 1;
+	private static final int WEIGHT_NULL = 2;
+	private static final int WEIGHT_BOOL = 3;
+	private static final int WEIGHT_NUMBER = 4;
+	private static final int WEIGHT_DATE = 5;
+	private static final int WEIGHT_STRING = 6;
+	private static final int WEIGHT_ARRAY = 7;
+	private static final int WEIGHT_OBJECT = 8;
+	private static final int WEIGHT_OTHER = 9;
+	private static final int WEIGHT_MAX_KEY = 10;
+
+	private static final double TWO_POW_63 = 0x1p63;
+	private static final double TWO_POW_64 = 0x1p64;
+	private static final byte[] NULL = new byte[] { 0x18 };
+	private static final ThreadLocal<KeyBuffer> KEY_BUFFER = new ThreadLocal<KeyBuffer>() {
+		@Override
+		protected KeyBuffer initialValue() {
+			return new KeyBuffer();
+		}
+	};
+
+	private VPackComparator() {
+		super();
+	}
+
+	@Override
+	public int compare(final VPackSlice o1, final VPackSlice o2) {
+		return compare(o1.getBuffer(), o1.getStart(), o2.getBuffer(), o2.getStart());
+	}
+
+	/**
+	 * @return true if both values are equal according to this comparator, e.g. the same Object encoded sorted and
+	 *         compact, or the same number encoded as SmallInt and as Int
+	 */
+	public static boolean isEqual(final VPackSlice a, final VPackSlice b) {
+		final byte[] vpackA = a.getBuffer();
+		final byte[] vpackB = b.getBuffer();
+		final int startA = a.getStart();
+		final int startB = b.getStart();
+		final int byteSize = a.getByteSize();
+		if (byteSize == b.getByteSize()
+				&& ByteArrayAccess.mismatch(vpackA, startA, vpackB, startB, byteSize) < 0) {
+			return true;
+		}
+		return compare(vpackA, startA, vpackB, startB) == 0;
+	}
+
+	static int compare(final byte[] a, final int posA, final byte[] b, final int posB) {
+		final int infoA = ValueHeadUtil.get(a[posA]);
+		final int infoB = ValueHeadUtil.get(b[posB]);
+		final int weight = weight(infoA);
+		final int c = Integer.compare(weight, weight(infoB));
+		if (c != 0) {
+			return c;
+		}
+		switch (weight) {
+		case WEIGHT_BOOL:
+			return Integer.compare(a[posA], b[posB]);
+		case WEIGHT_NUMBER:
+			return compareNumbers(a, posA, infoA, b, posB, infoB);
+		case WEIGHT_DATE:
+			return Long.compare(NumberUtil.toLong(a, posA + 1, 8), NumberUtil.toLong(b, posB + 1, 8));
+		case WEIGHT_STRING:
+			return compareStrings(a, posA, b, posB);
+		case WEIGHT_ARRAY:
+			return compareArrays(a, posA, b, posB);
+		case WEIGHT_OBJECT:
+			return compareObjects(a, posA, b, posB);
+		case WEIGHT_OTHER:
+			return ByteArrayAccess.compareUnsigned(a, posA, VPackSlice.getByteSize(a, posA), b, posB,
+				VPackSlice.getByteSize(b, posB));
+		default:
+			// MinKey, None, null and MaxKey have a single value
+			return 0;
+		}
+	}
+
+	private static int weight(final int info) {
+		if ((info & ValueHeadUtil.NUMBER) != 0) {
+			return WEIGHT_NUMBER;
+		}
+		switch (ValueHeadUtil.getType(info)) {
+		case MIN_KEY:
+			return WEIGHT_MIN_KEY;
+		case NONE:
+			return WEIGHT_NONE;
+		case NULL:
+			return WEIGHT_NULL;
+		case BOOL:
+			return WEIGHT_BOOL;
+		case BCD:
+			return WEIGHT_NUMBER;
+		case UTC_DATE:
+			return WEIGHT_DATE;
+		case STRING:
+			return WEIGHT_STRING;
+		case ARRAY:
+			return WEIGHT_ARRAY;
+		case OBJECT:
+			return WEIGHT_OBJECT;
+		case MAX_KEY:
+			return WEIGHT_MAX_KEY;
+		default:
+			return WEIGHT_OTHER;
+		}
+	}
+
+	private static int compareNumbers(
+		final byte[] a,
+		final int posA,
+		final int infoA,
+		final byte[] b,
+		final int posB,
+		final int infoB) {
+		if (ValueHeadUtil.isType(infoA, ValueType.BCD) || ValueHeadUtil.isType(infoB, ValueType.BCD)) {
+			return compareDecimals(a, posA, infoA, b, posB, infoB);
+		}
+		final boolean doubleA = ValueHeadUtil.isType(infoA, ValueType.DOUBLE);
+		final boolean doubleB = ValueHeadUtil.isType(infoB, ValueType.DOUBLE);
+		if (doubleA && doubleB) {
+			return compareDoubles(NumberUtil.toDouble(a, posA + 1, 8), NumberUtil.toDouble(b, posB + 1, 8));
+		}
+		if (doubleA) {
+			return compareDoubleInteger(NumberUtil.toDouble(a, posA + 1, 8), b, posB, infoB);
+		}
+		if (doubleB) {
+			return -compareDoubleInteger(NumberUtil.toDouble(b, posB + 1, 8), a, posA, infoA);
+		}
+		final long valueA = VPackSlice.getIntegerKey(a, posA);
+		final long valueB = VPackSlice.getIntegerKey(b, posB);
+		final boolean unsignedA = isUnsignedBeyondLong(infoA, valueA);
+		final boolean unsignedB = isUnsignedBeyondLong(infoB, valueB);
+		if (unsignedA || unsignedB) {
+			return unsignedA && unsignedB ? Long.compareUnsigned(valueA, valueB) : unsignedA ? 1 : -1;
+		}
+		return Long.compare(valueA, valueB);
+	}
+
+	private static boolean isUnsignedBeyondLong(final int info, final long value) {
+		return value < 0 && ValueHeadUtil.isType(info, ValueType.UINT);
+	}
+
+	private static int compareDoubles(final double a, final double b) {
+		if (a < b) {
+			return -1;
+		}
+		if (a > b) {
+			return 1;
+		}
+		if (a == b) {
+			// -0.0 equals 0.0
+			return 0;
+		}
+		return Boolean.compare(Double.isNaN(a), Double.isNaN(b));
+	}
+
+	private static int compareDoubleInteger(final double a, final byte[] b, final int posB, final int infoB) {
+		if (Double.isNaN(a)) {
+			return 1;
+		}
+		final long value = VPackSlice.getIntegerKey(b, posB);
+		if (isUnsignedBeyondLong(infoB, value)) {
+			if (a < TWO_POW_63) {
+				return -1;
+			}
+			if (a >= TWO_POW_64) {
+				return 1;
+			}
+			// doubles of this magnitude are integral
+			return Long.compareUnsigned((long) (a - TWO_POW_63) ^ Long.MIN_VALUE, value);
+		}
+		if (a < -TWO_POW_63) {
+			return -1;
+		}
+		if (a >= TWO_POW_63) {
+			return 1;
+		}
+		final long truncated = (long) a;
+		if (truncated != value) {
+			return Long.compare(truncated, value);
+		}
+		// the fraction decides, truncated is exactly representable as double
+		return compareDoubles(a, truncated);
+	}
+
+	private static int compareDecimals(
+		final byte[] a,
+		final int posA,
+		final int infoA,
+		final byte[] b,
+		final int posB,
+		final int infoB) {
+		if (ValueHeadUtil.isType(infoA, ValueType.DOUBLE)) {
+			final double value = NumberUtil.toDouble(a, posA + 1, 8);
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				return value < 0 ? -1 : 1;
+			}
+		}
+		if (ValueHeadUtil.isType(infoB, ValueType.DOUBLE)) {
+			final double value = NumberUtil.toDouble(b, posB + 1, 8);
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				return value < 0 ? 1 : -1;
+			}
+		}
+		return toBigDecimal(a, posA, infoA).compareTo(toBigDecimal(b, posB, infoB));
+	}
+
+	private static BigDecimal toBigDecimal(final byte[] vpack, final int pos, final int info) {
+		switch (ValueHeadUtil.getType(info)) {
+		case BCD:
+			return NumberUtil.toBigDecimal(vpack, pos);
+		case DOUBLE:
+			// exact, unlike BigDecimal.valueOf(double)
+			return new BigDecimal(NumberUtil.toDouble(vpack, pos + 1, 8));
+		case UINT:
+			return new BigDecimal(NumberUtil.toBigInteger(vpack, pos + 1, (vpack[pos] & 0xff) - 0x27));
+		default:
+			return BigDecimal.valueOf(VPackSlice.getIntegerKey(vpack, pos));
+		}
+	}
+
+	private static int compareStrings(final byte[] a, final int posA, final byte[] b, final int posB) {
+		return ByteArrayAccess.compareUnsigned(a, stringStart(a, posA), stringLength(a, posA), b, stringStart(b, posB),
+			stringLength(b, posB));
+	}
+
+	private static int stringStart(final byte[] vpack, final int pos) {
+		return vpack[pos] == (byte) 0xbf ? pos + 9 : pos + 1;
+	}
+
+	private static int stringLength(final byte[] vpack, final int pos) {
+		return vpack[pos] == (byte) 0xbf ? (int) NumberUtil.toLong(vpack, pos + 1, 8) : (vpack[pos] & 0xff) - 0x40;
+	}
+
+	private static int compareArrays(final byte[] a, final int posA, final byte[] b, final int posB) {
+		final long n = VPackSlice.getMemberCount(a, posA);
+		final long m = VPackSlice.getMemberCount(b, posB);
+		final long common = Math.min(n, m);
+		if (common > 0) {
+			int memberA = VPackSlice.firstMemberPosition(a, posA);
+			int memberB = VPackSlice.firstMemberPosition(b, posB);
+			for (long i = 0; i < common; i++) {
+				final int c = compare(a, memberA, b, memberB);
+				if (c != 0) {
+					return c;
+				}
+				memberA += VPackSlice.getByteSize(a, memberA);
+				memberB += VPackSlice.getByteSize(b, memberB);
+			}
+		}
+		return Long.compare(n, m);
+	}
+
+	private static int compareObjects(final byte[] a, final int posA, final byte[] b, final int posB) {
+		final int n = (int) VPackSlice.getMemberCount(a, posA);
+		final int m = (int) VPackSlice.getMemberCount(b, posB);
+		final boolean sortA = needsSorting(a, posA, n);
+		final boolean sortB = needsSorting(b, posB, m);
+		if (!sortA && !sortB) {
+			return compareMembers(a, posA, n, -1, b, posB, m, -1, null);
+		}
+		final KeyBuffer buffer = KEY_BUFFER.get();
+		final int top = buffer.top;
+		try {
+			final int sortedA = sortA ? buffer.sortedKeys(a, posA, n) : -1;
+			final int sortedB = sortB ? buffer.sortedKeys(b, posB, m) : -1;
+			return compareMembers(a, posA, n, sortedA, b, posB, m, sortedB, buffer);
+		} finally {
+			buffer.top = top;
+		}
+	}
+
+	/**
+	 * Merges the members of both Objects in key order. The keys of an Object with a sorted index table are read from
+	 * it, those of other Objects from the given offset into the key buffer.
+	 */
+	private static int compareMembers(
+		final byte[] a,
+		final int posA,
+		final int n,
+		final int sortedA,
+		final byte[] b,
+		final int posB,
+		final int m,
+		final int sortedB,
+		final KeyBuffer buffer) {
+		int i = 0;
+		int j = 0;
+		while (i < n || j < m) {
+			final int keyA = i < n ? keyPosition(a, posA, buffer, sortedA, i) : -1;
+			final int keyB = j < m ? keyPosition(b, posB, buffer, sortedB, j) : -1;
+			final int k = keyA < 0 ? 1 : keyB < 0 ? -1 : compareKeys(a, keyA, b, keyB);
+			final int c;
+			if (k == 0) {
+				c = compare(a, keyA + VPackSlice.getByteSize(a, keyA), b, keyB + VPackSlice.getByteSize(b, keyB));
+				i++;
+				j++;
+			} else if (k < 0) {
+				// missing in b
+				c = compareToNull(a, keyA + VPackSlice.getByteSize(a, keyA));
+				i++;
+			} else {
+				// missing in a
+				c = -compareToNull(b, keyB + VPackSlice.getByteSize(b, keyB));
+				j++;
+			}
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	private static int compareToNull(final byte[] vpack, final int pos) {
+		return compare(vpack, pos, NULL, 0);
+	}
+
+	/**
+	 * @return whether the keys of the Object have to be put in order, i.e. it has no index table sorted by key
+	 */
+	private static boolean needsSorting(final byte[] vpack, final int pos, final int n) {
+		final int head = vpack[pos] & 0xff;
+		return n > 1 && (head < 0x0b || head > 0x0e);
+	}
+
+	private static int keyPosition(
+		final byte[] vpack,
+		final int pos,
+		final KeyBuffer buffer,
+		final int sorted,
+		final int index) {
+		// the buffer may have grown while comparing the previous members, so its array is read again every time
+		return sorted >= 0 ? buffer.keys[sorted + index] : pos + VPackSlice.getNthOffset(vpack, pos, index);
+	}
+
+	private static int compareKeys(final byte[] a, final int keyA, final byte[] b, final int keyB) {
+		if (VPackSlice.isIntegerHead(a[keyA])) {
+			final VPackSlice translation = translate(a, keyA);
+			return compareKeys(translation.getBuffer(), translation.getStart(), b, keyB);
+		}
+		if (VPackSlice.isIntegerHead(b[keyB])) {
+			final VPackSlice translation = translate(b, keyB);
+			return compareKeys(a, keyA, translation.getBuffer(), translation.getStart());
+		}
+		return compareStrings(a, keyA, b, keyB);
+	}
+
+	private static VPackSlice translate(final byte[] vpack, final int keyPos) {
+		final VPackSlice translation = VPackSlice.attributeTranslator
+				.translate((int) VPackSlice.getIntegerKey(vpack, keyPos));
+		if (translation == null || !translation.isString()) {
+			throw new VPackValueTypeException(ValueType.STRING);
+		}
+		return translation;
+	}
+
+	/**
+	 * Stack of key positions of the Objects currently compared by a thread. Every nested comparison of compact or
+	 * unsorted Objects takes its keys from the top and releases them when it is done.
+	 */
+	private static final class KeyBuffer {
+
+		private int[] keys = new int[64];
+		private int top;
+
+		/**
+		 * Puts the positions of the keys in key order on top of the buffer.
+		 *
+		 * @return the offset of the first key in {@link #keys}
+		 */
+		int sortedKeys(final byte[] vpack, final int pos, final int n) {
+			final int from = top;
+			// room for the keys and for the temporary copies of the merge sort behind them
+			if (keys.length < from + 2 * n) {
+				keys = Arrays.copyOf(keys, Math.max(2 * keys.length, from + 2 * n));
+			}
+			int member = VPackSlice.firstMemberPosition(vpack, pos);
+			for (int i = from; i < from + n; i++) {
+				keys[i] = member;
+				final int valuePos = member + VPackSlice.getByteSize(vpack, member);
+				member = valuePos + VPackSlice.getByteSize(vpack, valuePos);
+			}
+			sort(vpack, keys, n, from, from + n);
+			top = from + n;
+			return from;
+		}
+
+		/**
+		 * Merge sort of {@code keys[from, to)}, using {@code keys[from + shift, to + shift)} as temporary space.
+		 */
+		private static void sort(final byte[] vpack, final int[] keys, final int shift, final int from, final int to) {
+			if (to - from < 2) {
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			sort(vpack, keys, shift, from, mid);
+			sort(vpack, keys, shift, mid, to);
+			if (compareKeys(vpack, keys[mid - 1], vpack, keys[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(keys, from, keys, from + shift, to - from);
+			int i = from + shift;
+			int j = mid + shift;
+			for (int k = from; k < to; k++) {
+				if (j >= to + shift || i < mid + shift && compareKeys(vpack, keys[i], vpack, keys[j]) <= 0) {
+					keys[k] = keys[i++];
+				} else {
+					keys[k] = keys[j++];
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,403 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.arangodb.velocypack.exception.VPackException;
+import com.arangodb.velocypack.exception.VPackValueTypeException;
+import com.arangodb.velocypack.internal.util.NumberUtil;
+import com.arangodb.velocypack.internal.util.ValueHeadUtil;
+
+/**
+ * A mutable, reusable position within VelocyPack data. Unlike {@link VPackSlice}, which creates a new instance for
+ * every navigation step, a cursor moves into children, to siblings and back to parents in place, and reads scalar
+ * values without creating objects. It remembers the containers it has entered, so {@link #up()} can return to them.
+ *
+ * A cursor is not thread-safe. Use {@link #reset(VPackSlice)} to reuse it for other data, and {@link #toSlice()} to
+ * hand the current value over to code working with slices.
+ */
+public class VPackCursor {
+
+	private static final int DEFAULT_DEPTH = 8;
+
+	private byte[] vpack;
+	private int pos;
+	private int depth;
+	// per entered container: its position, the position of the current member (the key for objects) and the end of
+	// its member data
+	private int[] starts;
+	private int[] members;
+	private int[] ends;
+
+	public VPackCursor() {
+		this(VPackSlice.NONE_SLICE);
+	}
+
+	public VPackCursor(final VPackSlice slice) {
+		this(slice.getBuffer(), slice.getStart());
+	}
+
+	public VPackCursor(final byte[] vpack, final int start) {
+		super();
+		starts = new int[DEFAULT_DEPTH];
+		members = new int[DEFAULT_DEPTH];
+		ends = new int[DEFAULT_DEPTH];
+		reset(vpack, start);
+	}
+
+	/**
+	 * Moves the cursor to the given slice and forgets all entered containers.
+	 */
+	public VPackCursor reset(final VPackSlice slice) {
+		return reset(slice.getBuffer(), slice.getStart());
+	}
+
+	/**
+	 * Moves the cursor to the value at the given position and forgets all entered containers.
+	 */
+	public VPackCursor reset(final byte[] vpack, final int start) {
+		this.vpack = vpack;
+		pos = start;
+		depth = 0;
+		return this;
+	}
+
+	public byte[] getBuffer() {
+		return vpack;
+	}
+
+	/**
+	 * @return the position of the current value within {@link #getBuffer()}
+	 */
+	public int getPosition() {
+		return pos;
+	}
+
+	/**
+	 * @return the number of containers entered since the last reset
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return a new slice of the current value
+	 */
+	public VPackSlice toSlice() {
+		return new VPackSlice(vpack, pos);
+	}
+
+	public byte head() {
+		return vpack[pos];
+	}
+
+	public ValueType getType() {
+		return ValueHeadUtil.getType(info());
+	}
+
+	private int info() {
+		return ValueHeadUtil.get(vpack[pos]);
+	}
+
+	public boolean isType(final ValueType type) {
+		return ValueHeadUtil.isType(info(), type);
+	}
+
+	public boolean isNone() {
+		return isType(ValueType.NONE);
+	}
+
+	public boolean isNull() {
+		return isType(ValueType.NULL);
+	}
+
+	public boolean isBoolean() {
+		return isType(ValueType.BOOL);
+	}
+
+	public boolean isTrue() {
+		return head() == 0x1a;
+	}
+
+	public boolean isFalse() {
+		return head() == 0x19;
+	}
+
+	public boolean isArray() {
+		return (info() & ValueHeadUtil.ARRAY) != 0;
+	}
+
+	public boolean isObject() {
+		return (info() & ValueHeadUtil.OBJECT) != 0;
+	}
+
+	public boolean isDouble() {
+		return isType(ValueType.DOUBLE);
+	}
+
+	public boolean isInteger() {
+		return (info() & ValueHeadUtil.INTEGER) != 0;
+	}
+
+	public boolean isNumber() {
+		return (info() & ValueHeadUtil.NUMBER) != 0;
+	}
+
+	public boolean isString() {
+		return (info() & ValueHeadUtil.STRING) != 0;
+	}
+
+	public int getByteSize() {
+		return VPackSlice.getByteSize(vpack, pos);
+	}
+
+	/**
+	 * @return the number of members for an Array, Object or String
+	 */
+	public int getLength() {
+		if (isString()) {
+			return getStringLength();
+		}
+		if ((info() & ValueHeadUtil.COMPOUND) == 0) {
+			throw new VPackValueTypeException(ValueType.ARRAY, ValueType.OBJECT, ValueType.STRING);
+		}
+		return (int) VPackSlice.getMemberCount(vpack, pos);
+	}
+
+	public boolean getAsBoolean() {
+		if (!isBoolean()) {
+			throw new VPackValueTypeException(ValueType.BOOL);
+		}
+		return isTrue();
+	}
+
+	public long getAsLong() {
+		final int head = vpack[pos] & 0xff;
+		if (head >= 0x30 && head <= 0x3f) {
+			return head <= 0x39 ? head - 0x30 : head - 0x40;
+		} else if (head >= 0x20 && head <= 0x27) {
+			return NumberUtil.toLong(vpack, pos + 1, head - 0x1f, true);
+		} else if (head >= 0x28 && head <= 0x2f) {
+			return NumberUtil.toLong(vpack, pos + 1, head - 0x27);
+		} else if (head == 0x1b) {
+			return (long) getAsDouble();
+		}
+		// other numbers need a slice, anything else fails there
+		return toSlice().getAsLong();
+	}
+
+	public int getAsInt() {
+		return (int) getAsLong();
+	}
+
+	public double getAsDouble() {
+		if (isDouble()) {
+			return NumberUtil.toDouble(vpack, pos + 1, 8);
+		}
+		if (isInteger()) {
+			return getAsLong();
+		}
+		return toSlice().getAsDouble();
+	}
+
+	public String getAsString() {
+		if (!isString()) {
+			throw new VPackValueTypeException(ValueType.STRING);
+		}
+		return new String(vpack, head() == (byte) 0xbf ? pos + 9 : pos + 1, getStringLength(),
+				StandardCharsets.UTF_8);
+	}
+
+	private int getStringLength() {
+		return head() == (byte) 0xbf ? (int) NumberUtil.toLong(vpack, pos + 1, 8) : (head() & 0xff) - 0x40;
+	}
+
+	/**
+	 * Moves into the current Array or Object, to its first member. For Objects the cursor is positioned on the value
+	 * of the first attribute.
+	 *
+	 * @return false if the container is empty, in which case the cursor does not move
+	 * @throws VPackValueTypeException
+	 *             if the current value is neither an Array nor an Object
+	 */
+	public boolean first() throws VPackException {
+		if (!isArray() && !isObject()) {
+			throw new VPackValueTypeException(ValueType.ARRAY, ValueType.OBJECT);
+		}
+		final byte head = head();
+		if (head == 0x01 || head == 0x0a) {
+			return false;
+		}
+		final int first;
+		if (head == 0x13 || head == 0x14) {
+			final long end = NumberUtil.readVariableValueLength(vpack, pos + 1, false);
+			first = (int) (pos + 1 + NumberUtil.getVariableValueLength(end));
+		} else {
+			first = pos + VPackSlice.findDataOffset(vpack, pos);
+		}
+		enter(first);
+		return true;
+	}
+
+	/**
+	 * Moves into the current Array or Object, to the member with the given index. Indexes of sorted Objects follow
+	 * the order of their attribute names, like {@link VPackSlice#keyAt(int)}.
+	 *
+	 * @throws VPackValueTypeException
+	 *             if the current value is neither an Array nor an Object
+	 * @throws IndexOutOfBoundsException
+	 *             if the container has no member with the given index
+	 */
+	public void child(final int index) throws VPackException {
+		if (!isArray() && !isObject()) {
+			throw new VPackValueTypeException(ValueType.ARRAY, ValueType.OBJECT);
+		}
+		enter(pos + VPackSlice.getNthOffset(vpack, pos, index));
+	}
+
+	/**
+	 * Moves into the current Object, to the value of the given attribute.
+	 *
+	 * @return false if the Object has no such attribute, in which case the cursor does not move
+	 * @throws VPackValueTypeException
+	 *             if the current value is not an Object
+	 */
+	public boolean get(final VPackKey key) throws VPackException {
+		if (!isObject()) {
+			throw new VPackValueTypeException(ValueType.OBJECT);
+		}
+		final int keyPos = VPackSlice.findKey(vpack, pos, key.getName(), key.getTranslated());
+		if (keyPos < 0) {
+			return false;
+		}
+		enter(keyPos);
+		return true;
+	}
+
+	/**
+	 * Moves to the next member of the container last entered. Members are visited in the order they are stored, like
+	 * the iterators of {@link VPackSlice} do.
+	 *
+	 * @return false if the current value is the last member or no container was entered, in which case the cursor
+	 *         does not move
+	 */
+	public boolean next() {
+		if (depth == 0) {
+			return false;
+		}
+		final int next = pos + VPackSlice.getByteSize(vpack, pos);
+		if (next >= ends[depth - 1]) {
+			return false;
+		}
+		members[depth - 1] = next;
+		pos = isObjectMember() ? next + VPackSlice.getByteSize(vpack, next) : next;
+		return true;
+	}
+
+	/**
+	 * Moves back to the container last entered.
+	 *
+	 * @return false if no container was entered, in which case the cursor does not move
+	 */
+	public boolean up() {
+		if (depth == 0) {
+			return false;
+		}
+		pos = starts[--depth];
+		return true;
+	}
+
+	/**
+	 * @return whether the current value is the value of the given attribute
+	 * @throws VPackValueTypeException
+	 *             if the current value is not an Object member
+	 */
+	public boolean isKey(final VPackKey key) throws VPackException {
+		return VPackSlice.isKeyEqual(vpack, getKeyPosition(), key.getName(), key.getTranslated());
+	}
+
+	/**
+	 * @return the attribute name of the current value
+	 * @throws VPackValueTypeException
+	 *             if the current value is not an Object member
+	 */
+	public String getKeyAsString() throws VPackException {
+		return new VPackSlice(vpack, getKeyPosition()).makeKey().getAsString();
+	}
+
+	/**
+	 * @return the position of the attribute key of the current value within {@link #getBuffer()}
+	 * @throws VPackValueTypeException
+	 *             if the current value is not an Object member
+	 */
+	public int getKeyPosition() throws VPackException {
+		if (depth == 0 || !isObjectMember()) {
+			throw new VPackValueTypeException(ValueType.OBJECT);
+		}
+		return members[depth - 1];
+	}
+
+	private boolean isObjectMember() {
+		return (ValueHeadUtil.get(vpack[starts[depth - 1]]) & ValueHeadUtil.OBJECT) != 0;
+	}
+
+	/**
+	 * Enters the current container, positioned on the given member.
+	 */
+	private void enter(final int member) {
+		if (depth == starts.length) {
+			starts = Arrays.copyOf(starts, depth * 2);
+			members = Arrays.copyOf(members, depth * 2);
+			ends = Arrays.copyOf(ends, depth * 2);
+		}
+		starts[depth] = pos;
+		members[depth] = member;
+		ends[depth] = dataEnd(vpack, pos);
+		depth++;
+		pos = isObjectMember() ? member + VPackSlice.getByteSize(vpack, member) : member;
+	}
+
+	/**
+	 * @return the position behind the last member of the nonempty Array or Object at the given position
+	 */
+	private static int dataEnd(final byte[] vpack, final int start) {
+		final byte head = vpack[start];
+		if (head == 0x13 || head == 0x14) {
+			// compact Array or Object, followed by the reversed number of members
+			final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+			final long n = NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
+			return (int) (start + end - NumberUtil.getVariableValueLength(n));
+		}
+		final int offsetsize = ValueHeadUtil.getOffsetSize(ValueHeadUtil.get(head));
+		final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
+		if (head <= 0x05) {
+			// array with no offset table
+			return (int) (start + end);
+		}
+		// followed by the index table
+		final long n = VPackSlice.getMemberCount(vpack, start);
+		return (int) (start + end - n * offsetsize - (offsetsize == 8 ? 8 : 0));
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.Arrays;
+
+/**
+ * {@link VPackSink} writing into a byte array on the heap, which grows as needed.
+ */
+public class VPackHeapSink implements VPackSink {
+
+	private byte[] buffer;
+
+	public VPackHeapSink(final int initialCapacity) {
+		super();
+		buffer = new byte[Math.max(initialCapacity, 1)];
+	}
+
+	@Override
+	public void ensureCapacity(final int minCapacity) {
+		final int oldCapacity = buffer.length;
+		if (minCapacity > oldCapacity) {
+			int newCapacity = (oldCapacity * 3) / 2 + 1;
+			if (newCapacity < minCapacity) {
+				newCapacity = minCapacity;
+			}
+			buffer = Arrays.copyOf(buffer, newCapacity);
+		}
+	}
+
+	@Override
+	public int capacity() {
+		return buffer.length;
+	}
+
+	@Override
+	public byte get(final int index) {
+		return buffer[index];
+	}
+
+	@Override
+	public void put(final int index, final byte b) {
+		buffer[index] = b;
+	}
+
+	@Override
+	public void get(final int index, final byte[] dst, final int offset, final int length) {
+		System.arraycopy(buffer, index, dst, offset, length);
+	}
+
+	@Override
+	public void put(final int index, final byte[] src, final int offset, final int length) {
+		System.arraycopy(src, offset, buffer, index, length);
+	}
+
+	@Override
+	public void move(final int from, final int to, final int length) {
+		System.arraycopy(buffer, from, buffer, to, length);
+	}
+
+	@Override
+	public boolean hasArray() {
+		return true;
+	}
+
+	@Override
+	public byte[] array() {
+		return buffer;
+	}
+
+}
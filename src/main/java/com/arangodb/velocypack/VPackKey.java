@@ -0,0 +1,123 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.util.Arrays;
+
+import com.arangodb.velocypack.internal.util.StringUtil;
+
+/**
+ * An immutable, reusable handle for an attribute name. It holds the UTF-8 encoding of the name and the encoding of
+ * the key as written by {@link VPackBuilder}, which is either the translated integer key or the encoded string.
+ * Translation is resolved once on construction with {@link VPackSlice#attributeTranslator}, so keys should be created
+ * after all translations have been registered.
+ *
+ * Use it with {@link VPackBuilder#add(VPackKey, String)} and {@link VPackSlice#get(VPackKey)} and the like to avoid
+ * translating and encoding the same attribute name over and over again.
+ */
+public final class VPackKey {
+
+	private final String attribute;
+	private final byte[] name;
+	private final byte[] encoded;
+	private final long translated;
+	private final int hash;
+
+	public VPackKey(final String attribute) {
+		super();
+		if (attribute == null) {
+			throw new IllegalArgumentException("attribute must not be null");
+		}
+		this.attribute = attribute;
+		name = new byte[StringUtil.encodedLength(attribute)];
+		StringUtil.encode(attribute, name, 0);
+		final VPackSlice translation = VPackSlice.attributeTranslator != null
+				? VPackSlice.attributeTranslator.translate(attribute)
+				: null;
+		if (translation != null) {
+			encoded = translation.toByteArray();
+			translated = translation.getAsLong();
+		} else {
+			final int length = name.length;
+			final int headerSize = length <= 126 ? 1 : 9;
+			encoded = new byte[headerSize + length];
+			if (length <= 126) {
+				encoded[0] = (byte) (0x40 + length);
+			} else {
+				encoded[0] = (byte) 0xbf;
+				for (int i = 1; i <= 8; i++) {
+					encoded[i] = (byte) (((long) length) >> ((i - 1) << 3));
+				}
+			}
+			System.arraycopy(name, 0, encoded, headerSize, length);
+			translated = -1;
+		}
+		hash = StringUtil.hash(name, 0, name.length);
+	}
+
+	public String getAttribute() {
+		return attribute;
+	}
+
+	/**
+	 * @return UTF-8 bytes of the attribute name, must not be modified
+	 */
+	byte[] getName() {
+		return name;
+	}
+
+	/**
+	 * @return the VelocyPack encoding of the key, must not be modified
+	 */
+	byte[] getEncoded() {
+		return encoded;
+	}
+
+	/**
+	 * @return the translated integer key, or -1 if the attribute has no translation
+	 */
+	long getTranslated() {
+		return translated;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final VPackKey other = (VPackKey) obj;
+		return hash == other.hash && Arrays.equals(name, other.name);
+	}
+
+	@Override
+	public String toString() {
+		return attribute;
+	}
+
+}
@@ -0,0 +1,235 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.arangodb.velocypack.internal.util.ValueHeadUtil;
+
+/**
+ * A compiled path to a nested value, e.g. {@code a.b[3].c} or the JSON Pointer {@code /a/b/3/c}. The attribute names
+ * are encoded once on compilation, and every lookup descends from the root in a single pass over positions, creating
+ * no intermediate slices. A miss returns {@link VPackSlice#NONE_SLICE}.
+ *
+ * Numeric segments such as {@code 3} index Arrays and name attributes of Objects, bracketed segments such as
+ * {@code [3]} only index Arrays. The segment {@code *} (or {@code [*]}) expands to every member of an Array, see
+ * {@link #getAll(VPackSlice)}. Like {@link VPackKey}, paths should be compiled after all attribute translations have
+ * been registered, and can be shared by any number of threads.
+ */
+public final class VPackPath {
+
+	private static final int NO_INDEX = -1;
+	private static final int WILDCARD = -2;
+
+	private final String path;
+	// per segment: the attribute name for Objects, or null, and the Array index, NO_INDEX or WILDCARD
+	private final VPackKey[] keys;
+	private final int[] indexes;
+	private final boolean wildcard;
+
+	private VPackPath(final String path, final List<VPackKey> keys, final List<Integer> indexes) {
+		super();
+		this.path = path;
+		this.keys = keys.toArray(new VPackKey[keys.size()]);
+		this.indexes = new int[indexes.size()];
+		boolean wildcard = false;
+		for (int i = 0; i < this.indexes.length; i++) {
+			this.indexes[i] = indexes.get(i);
+			wildcard |= this.indexes[i] == WILDCARD;
+		}
+		this.wildcard = wildcard;
+	}
+
+	/**
+	 * Compiles a JSON Pointer, if the path starts with {@code /}, or else a dotted path.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the path is malformed
+	 */
+	public static VPackPath compile(final String path) {
+		if (path == null) {
+			throw new IllegalArgumentException("path must not be null");
+		}
+		final List<VPackKey> keys = new ArrayList<>();
+		final List<Integer> indexes = new ArrayList<>();
+		if (path.startsWith("/")) {
+			int from = 1;
+			while (from <= path.length()) {
+				int to = path.indexOf('/', from);
+				if (to < 0) {
+					to = path.length();
+				}
+				addSegment(path.substring(from, to).replace("~1", "/").replace("~0", "~"), keys, indexes);
+				from = to + 1;
+			}
+		} else if (!path.isEmpty()) {
+			for (final String segment : path.split("\\.", -1)) {
+				final int bracket = segment.indexOf('[');
+				final String name = bracket < 0 ? segment : segment.substring(0, bracket);
+				if (!name.isEmpty()) {
+					addSegment(name, keys, indexes);
+				} else if (bracket != 0) {
+					throw new IllegalArgumentException("Invalid path, empty attribute name: " + path);
+				}
+				for (int i = bracket; i >= 0 && i < segment.length();) {
+					final int close = segment.indexOf(']', i);
+					if (segment.charAt(i) != '[' || close < 0) {
+						throw new IllegalArgumentException("Invalid path, unbalanced brackets: " + path);
+					}
+					final String index = segment.substring(i + 1, close);
+					final int parsed = "*".equals(index) ? WILDCARD : parseIndex(index);
+					if (parsed == NO_INDEX) {
+						throw new IllegalArgumentException("Invalid path, no Array index in brackets: " + path);
+					}
+					keys.add(null);
+					indexes.add(parsed);
+					i = close + 1;
+				}
+			}
+		}
+		return new VPackPath(path, keys, indexes);
+	}
+
+	private static void addSegment(final String segment, final List<VPackKey> keys, final List<Integer> indexes) {
+		keys.add(new VPackKey(segment));
+		indexes.add("*".equals(segment) ? WILDCARD : parseIndex(segment));
+	}
+
+	/**
+	 * @return the index in the given String of decimal digits, or {@link #NO_INDEX}
+	 */
+	private static int parseIndex(final String segment) {
+		if (segment.isEmpty() || segment.length() > 9) {
+			return NO_INDEX;
+		}
+		int index = 0;
+		for (int i = 0; i < segment.length(); i++) {
+			final char c = segment.charAt(i);
+			if (c < '0' || c > '9') {
+				return NO_INDEX;
+			}
+			index = index * 10 + c - '0';
+		}
+		return index;
+	}
+
+	/**
+	 * @return whether the path contains a wildcard segment and may match more than one value
+	 */
+	public boolean isWildcard() {
+		return wildcard;
+	}
+
+	/**
+	 * @return the value at this path, the first one for wildcard paths, or a None slice if there is none
+	 */
+	public VPackSlice get(final VPackSlice slice) {
+		final int pos = find(slice.getBuffer(), slice.getStart(), 0, null);
+		return pos >= 0 ? new VPackSlice(slice.getBuffer(), pos) : VPackSlice.NONE_SLICE;
+	}
+
+	/**
+	 * @return all values at this path, in the order of the Array members the wildcards expand to
+	 */
+	public List<VPackSlice> getAll(final VPackSlice slice) {
+		final List<VPackSlice> values = new ArrayList<>();
+		find(slice.getBuffer(), slice.getStart(), 0, values);
+		return values;
+	}
+
+	/**
+	 * Descends from the given position along the segments starting with the given one.
+	 *
+	 * @param values
+	 *            receives every match, or null to stop at the first one
+	 * @return the position of the first match, or -1
+	 */
+	private int find(final byte[] vpack, final int start, final int segment, final List<VPackSlice> values) {
+		int pos = start;
+		for (int i = segment; i < keys.length; i++) {
+			final int info = ValueHeadUtil.get(vpack[pos]);
+			final int index = indexes[i];
+			if ((info & ValueHeadUtil.OBJECT) != 0 && keys[i] != null) {
+				final int keyPos = VPackSlice.findKey(vpack, pos, keys[i].getName(), keys[i].getTranslated());
+				if (keyPos < 0) {
+					return -1;
+				}
+				pos = keyPos + VPackSlice.getByteSize(vpack, keyPos);
+			} else if ((info & ValueHeadUtil.ARRAY) != 0 && index == WILDCARD) {
+				return expand(vpack, pos, i + 1, values);
+			} else if ((info & ValueHeadUtil.ARRAY) != 0 && index >= 0 && index < VPackSlice.getMemberCount(vpack, pos)) {
+				pos += VPackSlice.getNthOffset(vpack, pos, index);
+			} else {
+				return -1;
+			}
+		}
+		if (values != null) {
+			values.add(new VPackSlice(vpack, pos));
+		}
+		return pos;
+	}
+
+	/**
+	 * Descends into every member of the Array at the given position.
+	 */
+	private int expand(final byte[] vpack, final int start, final int segment, final List<VPackSlice> values) {
+		final long n = VPackSlice.getMemberCount(vpack, start);
+		int first = -1;
+		if (n > 0) {
+			int member = start + VPackSlice.getNthOffset(vpack, start, 0);
+			for (long i = 0; i < n; i++) {
+				final int pos = find(vpack, member, segment, values);
+				if (first < 0 && pos >= 0) {
+					if (values == null) {
+						return pos;
+					}
+					first = pos;
+				}
+				member += VPackSlice.getByteSize(vpack, member);
+			}
+		}
+		return first;
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		return path.equals(((VPackPath) obj).path);
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link VPackSink} which grows by adding fixed size chunks instead of copying one contiguous array. Building a very
+ * large value neither copies its content on growth nor needs one huge allocation. The result can be read as a
+ * gathering list of {@link ByteBuffer}s, or copied into one array exactly once.
+ */
+public class VPackSegmentedSink implements VPackSink {
+
+	/**
+	 * Default chunk size of 64 KiB, well below the size for humongous allocations of the G1 collector
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private final int shift;
+	private final int mask;
+	private byte[][] chunks;
+	private int chunkCount;
+
+	public VPackSegmentedSink() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param chunkSize
+	 *            size of every chunk in bytes, has to be a power of two
+	 */
+	public VPackSegmentedSink(final int chunkSize) {
+		super();
+		if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("chunkSize has to be a power of two: " + chunkSize);
+		}
+		shift = Integer.numberOfTrailingZeros(chunkSize);
+		mask = chunkSize - 1;
+		chunks = new byte[4][];
+		chunks[0] = new byte[chunkSize];
+		chunkCount = 1;
+	}
+
+	@Override
+	public void ensureCapacity(final int minCapacity) {
+		while (capacity() < minCapacity) {
+			if (chunkCount == chunks.length) {
+				chunks = Arrays.copyOf(chunks, chunkCount * 2);
+			}
+			chunks[chunkCount++] = new byte[mask + 1];
+		}
+	}
+
+	@Override
+	public int capacity() {
+		return chunkCount << shift;
+	}
+
+	@Override
+	public byte get(final int index) {
+		return chunks[index >>> shift][index & mask];
+	}
+
+	@Override
+	public void put(final int index, final byte b) {
+		chunks[index >>> shift][index & mask] = b;
+	}
+
+	@Override
+	public void get(final int index, final byte[] dst, final int offset, final int length) {
+		int done = 0;
+		while (done < length) {
+			final int pos = index + done;
+			final int n = Math.min(length - done, mask + 1 - (pos & mask));
+			System.arraycopy(chunks[pos >>> shift], pos & mask, dst, offset + done, n);
+			done += n;
+		}
+	}
+
+	@Override
+	public void put(final int index, final byte[] src, final int offset, final int length) {
+		int done = 0;
+		while (done < length) {
+			final int pos = index + done;
+			final int n = Math.min(length - done, mask + 1 - (pos & mask));
+			System.arraycopy(src, offset + done, chunks[pos >>> shift], pos & mask, n);
+			done += n;
+		}
+	}
+
+	@Override
+	public void move(final int from, final int to, final int length) {
+		if (to < from) {
+			// front to back, every piece lies within one chunk of source and target
+			int done = 0;
+			while (done < length) {
+				final int src = from + done;
+				final int dst = to + done;
+				final int n = Math.min(length - done, Math.min(mask + 1 - (src & mask), mask + 1 - (dst & mask)));
+				System.arraycopy(chunks[src >>> shift], src & mask, chunks[dst >>> shift], dst & mask, n);
+				done += n;
+			}
+		} else if (to > from) {
+			// back to front
+			int remaining = length;
+			while (remaining > 0) {
+				final int srcEnd = from + remaining;
+				final int dstEnd = to + remaining;
+				final int n = Math.min(remaining,
+					Math.min(((srcEnd - 1) & mask) + 1, ((dstEnd - 1) & mask) + 1));
+				final int src = srcEnd - n;
+				final int dst = dstEnd - n;
+				System.arraycopy(chunks[src >>> shift], src & mask, chunks[dst >>> shift], dst & mask, n);
+				remaining -= n;
+			}
+		}
+	}
+
+	@Override
+	public boolean hasArray() {
+		return false;
+	}
+
+	@Override
+	public byte[] array() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @param length
+	 *            number of bytes written, see {@link VPackBuilder#getVpackSize()}
+	 * @return buffers wrapping the chunks holding the first length bytes, without copying, e.g. for a gathering write
+	 */
+	public List<ByteBuffer> toByteBuffers(final int length) {
+		final List<ByteBuffer> buffers = new ArrayList<>();
+		for (int pos = 0; pos < length; pos += mask + 1) {
+			buffers.add(ByteBuffer.wrap(chunks[pos >>> shift], 0, Math.min(mask + 1, length - pos)));
+		}
+		return buffers;
+	}
+
+	/**
+	 * @param length
+	 *            number of bytes written, see {@link VPackBuilder#getVpackSize()}
+	 * @return a copy of the first length bytes
+	 */
+	public byte[] toByteArray(final int length) {
+		final byte[] result = new byte[length];
+		get(0, result, 0, length);
+		return result;
+	}
+
+}
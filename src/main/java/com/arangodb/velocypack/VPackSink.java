@@ -0,0 +1,78 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+/**
+ * Random access memory a {@link VPackBuilder} writes its VelocyPack value into. The builder addresses the sink by
+ * absolute position, starting at 0, and patches compound headers in place when it closes them.
+ *
+ * @see VPackHeapSink
+ * @see VPackByteBufferSink
+ */
+public interface VPackSink {
+
+	/**
+	 * Makes the sink hold at least the given number of bytes, keeping its content.
+	 *
+	 * @param minCapacity
+	 *            required capacity in bytes
+	 * @throws java.nio.BufferOverflowException
+	 *             if the sink has a fixed capacity smaller than minCapacity
+	 */
+	void ensureCapacity(int minCapacity);
+
+	/**
+	 * @return the current capacity in bytes
+	 */
+	int capacity();
+
+	byte get(int index);
+
+	void put(int index, byte b);
+
+	/**
+	 * Copies length bytes of the sink starting at index into dst.
+	 */
+	void get(int index, byte[] dst, int offset, int length);
+
+	/**
+	 * Copies length bytes of src into the sink starting at index.
+	 */
+	void put(int index, byte[] src, int offset, int length);
+
+	/**
+	 * Copies length bytes within the sink from position from to position to. The ranges may overlap.
+	 */
+	void move(int from, int to, int length);
+
+	/**
+	 * @return whether the content is backed by an accessible array starting at index 0
+	 */
+	boolean hasArray();
+
+	/**
+	 * @return the backing array
+	 * @throws UnsupportedOperationException
+	 *             if the sink is not backed by an accessible array
+	 */
+	byte[] array();
+
+}
@@ -26,16 +26,16 @@ import com.arangodb.velocypack.exception.VPackNeedAttributeTranslatorException;
 import com.arangodb.velocypack.exception.VPackValueTypeException;
 import com.arangodb.velocypack.internal.VPackAttributeTranslatorImpl;
 import com.arangodb.velocypack.internal.util.BinaryUtil;
+import com.arangodb.velocypack.internal.util.ByteArrayAccess;
 import com.arangodb.velocypack.internal.util.DateUtil;
+import com.arangodb.velocypack.internal.util.HashUtil;
 import com.arangodb.velocypack.internal.util.NumberUtil;
-import com.arangodb.velocypack.internal.util.ObjectArrayUtil;
-import com.arangodb.velocypack.internal.util.ValueLengthUtil;
-import com.arangodb.velocypack.internal.util.ValueTypeUtil;
+import com.arangodb.velocypack.internal.util.StringUtil;
+import com.arangodb.velocypack.internal.util.ValueHeadUtil;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -56,10 +56,14 @@ public class VPackSlice implements Serializable {
 	private static final byte[] NONE_SLICE_DATA = new byte[] { 0x00 };
 	public static final VPackSlice NONE_SLICE = new VPackSlice();
 
+	private static final int INVALID_KEY = Integer.MIN_VALUE;
+
 	public static final VPackAttributeTranslator attributeTranslator = new VPackAttributeTranslatorImpl();
 
 	private final byte[] vpack;
 	private final int start;
+	// side index of a compact Array or Object, only present on slices returned by indexed()
+	private final transient CompactIndex compactIndex;
 
 	protected VPackSlice() {
 		this(NONE_SLICE_DATA, 0);
@@ -70,9 +74,14 @@ public class VPackSlice implements Serializable {
 	}
 
 	public VPackSlice(final byte[] vpack, final int start) {
+		this(vpack, start, null);
+	}
+
+	private VPackSlice(final byte[] vpack, final int start, final CompactIndex compactIndex) {
 		super();
 		this.vpack = vpack;
 		this.start = start;
+		this.compactIndex = compactIndex;
 	}
 
 	public byte head() {
@@ -95,7 +104,7 @@ public class VPackSlice implements Serializable {
 	}
 
 	public int getValueStart() {
-		return start + tagsOffset(start);
+		return start + tagsOffset(vpack, start);
 	}
 
 	public VPackSlice value() {
@@ -103,15 +112,22 @@ public class VPackSlice implements Serializable {
 	}
 
 	public ValueType getType() {
-		return ValueTypeUtil.get(head());
+		return ValueHeadUtil.getType(info());
+	}
+
+	/**
+	 * @return the packed metadata of the head, see {@link ValueHeadUtil}
+	 */
+	private int info() {
+		return ValueHeadUtil.get(vpack[start]);
 	}
 
 	private int length() {
-		return ValueLengthUtil.get(head()) - 1;
+		return ValueHeadUtil.getByteSize(info()) - 1;
 	}
 
 	public boolean isType(final ValueType type) {
-		return getType() == type;
+		return ValueHeadUtil.isType(info(), type);
 	}
 
 	public boolean isNone() {
@@ -139,11 +155,11 @@ public class VPackSlice implements Serializable {
 	}
 
 	public boolean isArray() {
-		return isType(ValueType.ARRAY);
+		return (info() & ValueHeadUtil.ARRAY) != 0;
 	}
 
 	public boolean isObject() {
-		return isType(ValueType.OBJECT);
+		return (info() & ValueHeadUtil.OBJECT) != 0;
 	}
 
 	public boolean isDouble() {
@@ -179,7 +195,7 @@ public class VPackSlice implements Serializable {
 	}
 
 	public boolean isInteger() {
-		return isInt() || isUInt() || isSmallInt();
+		return (info() & ValueHeadUtil.INTEGER) != 0;
 	}
 
 	public boolean isByte() {
@@ -187,11 +203,11 @@ public class VPackSlice implements Serializable {
 	}
 
 	public boolean isNumber() {
-		return isInteger() || isDouble();
+		return (info() & ValueHeadUtil.NUMBER) != 0;
 	}
 
 	public boolean isString() {
-		return isType(ValueType.STRING);
+		return (info() & ValueHeadUtil.STRING) != 0;
 	}
 
 	public boolean isBinary() {
@@ -232,7 +248,7 @@ public class VPackSlice implements Serializable {
 		List<Long> ret = new ArrayList<>();
 		int start = this.start;
 
-		while(ValueTypeUtil.get(vpack[start]) == ValueType.TAGGED) {
+		while(ValueHeadUtil.isType(ValueHeadUtil.get(vpack[start]), ValueType.TAGGED)) {
 			int offset;
 			long tag;
 
@@ -256,7 +272,7 @@ public class VPackSlice implements Serializable {
 	public boolean hasTag(long tagId) {
 		int start = this.start;
 
-		while(ValueTypeUtil.get(vpack[start]) == ValueType.TAGGED) {
+		while(ValueHeadUtil.isType(ValueHeadUtil.get(vpack[start]), ValueType.TAGGED)) {
 			int offset;
 			long tag;
 
@@ -288,9 +304,23 @@ public class VPackSlice implements Serializable {
 	}
 
 	public double getAsDouble() {
+		final int head = vpack[start] & 0xff;
+		if (head == 0x1b) {
+			return getAsDoubleUnchecked();
+		}
+		if (head >= 0x20 && head <= 0x3f) {
+			return getIntegerUnchecked(head);
+		}
 		return getAsNumber().doubleValue();
 	}
 
+	/**
+	 * @return the numeric value as double, or the given default if this slice is no number
+	 */
+	public double getAsDouble(final double defaultValue) {
+		return isNumber() || isBCD() ? getAsDouble() : defaultValue;
+	}
+
 	private double getAsDoubleUnchecked() {
 		return NumberUtil.toDouble(vpack, start + 1, length());
 	}
@@ -304,6 +334,8 @@ public class VPackSlice implements Serializable {
 			return BigDecimal.valueOf(getAsLong());
 		} else if (isUInt()) {
 			return new BigDecimal(NumberUtil.toBigInteger(vpack, start + 1, length()));
+		} else if (isBCD()) {
+			return NumberUtil.toBigDecimal(vpack, start);
 		} else {
 			throw new VPackValueTypeException(ValueType.STRING, ValueType.DOUBLE);
 		}
@@ -338,30 +370,94 @@ public class VPackSlice implements Serializable {
 			result = getUInt();
 		} else if (isDouble()) {
 			result = getAsDoubleUnchecked();
+		} else if (isBCD()) {
+			result = NumberUtil.toBigDecimal(vpack, start);
 		} else {
 			throw new VPackValueTypeException(ValueType.INT, ValueType.UINT, ValueType.SMALLINT);
 		}
 		return result;
 	}
 
+	/**
+	 * @return the value of the integer with the given head, which must be in the range 0x20 to 0x3f
+	 */
+	private long getIntegerUnchecked(final int head) {
+		if (head >= 0x30) {
+			return head <= 0x39 ? head - 0x30 : head - 0x40;
+		}
+		if (head >= 0x28) {
+			return NumberUtil.toLong(vpack, start + 1, head - 0x27);
+		}
+		return NumberUtil.toLong(vpack, start + 1, head - 0x1f, true);
+	}
+
 	public long getAsLong() {
+		final int head = vpack[start] & 0xff;
+		if (head >= 0x20 && head <= 0x3f) {
+			return getIntegerUnchecked(head);
+		}
+		if (head == 0x1b) {
+			return (long) getAsDoubleUnchecked();
+		}
 		return getAsNumber().longValue();
 	}
 
+	/**
+	 * @return the numeric value as long, or the given default if this slice is no number
+	 */
+	public long getAsLong(final long defaultValue) {
+		return isNumber() || isBCD() ? getAsLong() : defaultValue;
+	}
+
 	public int getAsInt() {
+		final int head = vpack[start] & 0xff;
+		if (head >= 0x20 && head <= 0x3f) {
+			return (int) getIntegerUnchecked(head);
+		}
+		if (head == 0x1b) {
+			return (int) getAsDoubleUnchecked();
+		}
 		return getAsNumber().intValue();
 	}
 
+	/**
+	 * @return the numeric value as int, or the given default if this slice is no number
+	 */
+	public int getAsInt(final int defaultValue) {
+		return isNumber() || isBCD() ? getAsInt() : defaultValue;
+	}
+
 	public float getAsFloat() {
+		final int head = vpack[start] & 0xff;
+		if (head >= 0x20 && head <= 0x3f) {
+			return getIntegerUnchecked(head);
+		}
+		if (head == 0x1b) {
+			return (float) getAsDoubleUnchecked();
+		}
 		return getAsNumber().floatValue();
 	}
 
+	/**
+	 * @return the numeric value as float, or the given default if this slice is no number
+	 */
+	public float getAsFloat(final float defaultValue) {
+		return isNumber() || isBCD() ? getAsFloat() : defaultValue;
+	}
+
 	public short getAsShort() {
-		return getAsNumber().shortValue();
+		return (short) getAsInt();
+	}
+
+	/**
+	 * @return the numeric value as short, or the given default if this slice is no number
+	 */
+	public short getAsShort(final short defaultValue) {
+		return isNumber() || isBCD() ? getAsShort() : defaultValue;
 	}
 
 	public byte getAsByte() {
-		return getAsNumber().byteValue();
+		return (byte) getAsInt();
 	}
 
 	public BigInteger getAsBigInteger() {
@@ -371,6 +467,8 @@ public class VPackSlice implements Serializable {
 			return BigInteger.valueOf(getAsLong());
 		} else if (isUInt()) {
 			return NumberUtil.toBigInteger(vpack, start + 1, length());
+		} else if (isBCD()) {
+			return NumberUtil.toBigDecimal(vpack, start).toBigInteger();
 		} else {
 			throw new VPackValueTypeException(ValueType.STRING, ValueType.INT, ValueType.UINT, ValueType.SMALLINT);
 		}
@@ -429,7 +527,7 @@ public class VPackSlice implements Serializable {
 	}
 
 	private int getStringLength() {
-		return isLongString() ? getLongStringLength() : head() - 0x40;
+		return isLongString() ? getLongStringLength() : (head() & 0xff) - 0x40;
 	}
 
 	public byte[] getAsBinary() {
@@ -460,30 +558,38 @@ public class VPackSlice implements Serializable {
 		} else if (!isArray() && !isObject()) {
 			throw new VPackValueTypeException(ValueType.ARRAY, ValueType.OBJECT, ValueType.STRING);
 		} else {
-			final byte head = head();
-			if (head == 0x01 || head == 0x0a) {
-				// empty
-				length = 0;
-			} else if (head == 0x13 || head == 0x14) {
-				// compact array or object
-				final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
-				length = NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
+			length = getMemberCount(vpack, start);
+		}
+		return (int) length;
+	}
+
+	/**
+	 * @return the number of members of the Array or Object at the given position
+	 */
+	static long getMemberCount(final byte[] vpack, final int start) {
+		final byte head = vpack[start];
+		final long length;
+		if (head == 0x01 || head == 0x0a) {
+			// empty
+			length = 0;
+		} else if (head == 0x13 || head == 0x14) {
+			// compact array or object
+			final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+			length = NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
+		} else {
+			final int offsetsize = ValueHeadUtil.getOffsetSize(ValueHeadUtil.get(head));
+			final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
+			if (head <= 0x05) {
+				// array with no offset table or length
+				final int dataOffset = findDataOffset(vpack, start);
+				length = (end - dataOffset) / getByteSize(vpack, start + dataOffset);
+			} else if (offsetsize < 8) {
+				length = NumberUtil.toLong(vpack, start + 1 + offsetsize, offsetsize);
 			} else {
-				final int offsetsize = ObjectArrayUtil.getOffsetSize(head);
-				final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
-				if (head <= 0x05) {
-					// array with no offset table or length
-					final int dataOffset = findDataOffset();
-					final VPackSlice first = new VPackSlice(vpack, start + dataOffset);
-					length = (end - dataOffset) / first.getByteSize();
-				} else if (offsetsize < 8) {
-					length = NumberUtil.toLong(vpack, start + 1 + offsetsize, offsetsize);
-				} else {
-					length = NumberUtil.toLong(vpack, (int) (start + end - offsetsize), offsetsize);
-				}
+				length = NumberUtil.toLong(vpack, (int) (start + end - offsetsize), offsetsize);
 			}
 		}
-		return (int) length;
+		return length;
 	}
 
 	public int size() {
@@ -494,13 +600,20 @@ public class VPackSlice implements Serializable {
 	 * Must be called for a nonempty array or object at start():
 	 */
 	protected int findDataOffset() {
-		final int fsm = ObjectArrayUtil.getFirstSubMap(head());
+		return findDataOffset(vpack, start);
+	}
+
+	/**
+	 * Must be called for a nonempty array or object at the given position
+	 */
+	static int findDataOffset(final byte[] vpack, final int start) {
+		final int fsm = ValueHeadUtil.getFirstSub(ValueHeadUtil.get(vpack[start]));
 		final int offset;
 		if (fsm <= 2 && vpack[start + 2] != 0) {
 			offset = 2;
 		} else if (fsm <= 3 && vpack[start + 3] != 0) {
 			offset = 3;
-		} else if (fsm <= 5 && vpack[start + 6] != 0) {
+		} else if (fsm <= 5 && vpack[start + 5] != 0) {
 			offset = 5;
 		} else {
 			offset = 9;
@@ -508,68 +621,62 @@ public class VPackSlice implements Serializable {
 		return offset;
 	}
 
+	/**
+	 * @return the position of the member stored first in the non-empty Array or Object at the given position, in
+	 *         contrast to {@link #getNthOffset(byte[], int, int)} which follows the index table sorted by key
+	 */
+	static int firstMemberPosition(final byte[] vpack, final int start) {
+		final byte head = vpack[start];
+		return start + (head == 0x13 || head == 0x14 ? getNthOffset(vpack, start, 0) : findDataOffset(vpack, start));
+	}
+
 	public int getByteSize() {
-		return getByteSize(start);
+		return getByteSize(vpack, start);
 	}
 
-	private int getByteSize(int start) {
-		long size;
+	/**
+	 * @return the byte size of the value at the given position
+	 */
+	static int getByteSize(final byte[] vpack, final int start) {
 		final byte head = vpack[start];
-		final int valueLength = ValueLengthUtil.get(head);
-		if (valueLength != 0) {
-			size = valueLength;
+		final int info = ValueHeadUtil.get(head);
+		final int fixed = ValueHeadUtil.getByteSize(info);
+		if (fixed != 0) {
+			return fixed;
+		}
+		final long size;
+		final int h = head & 0xff;
+		if ((info & ValueHeadUtil.COMPACT) != 0) {
+			size = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+		} else if ((info & ValueHeadUtil.COMPOUND) != 0) {
+			size = NumberUtil.toLong(vpack, start + 1, ValueHeadUtil.getOffsetSize(info));
+		} else if (h == 0xbf) {
+			// long UTF-8 String
+			size = NumberUtil.toLong(vpack, start + 1, 8) + 1 + 8;
+		} else if (h >= 0xc0 && h <= 0xc7) {
+			// Binary
+			size = 1 + h - 0xbf + NumberUtil.toLong(vpack, start + 1, h - 0xbf);
+		} else if (h >= 0xc8 && h <= 0xd7) {
+			// BCD
+			final int lengthSize = h - (h <= 0xcf ? 0xc7 : 0xcf);
+			size = 1 + lengthSize + NumberUtil.toLong(vpack, start + 1, lengthSize) + 4;
+		} else if (h == 0xee || h == 0xef) {
+			final int offset = tagsOffset(vpack, start);
+			size = getByteSize(vpack, start + offset) + offset;
+		} else if (h >= 0xf4) {
+			// Custom with length
+			final int lengthSize = h <= 0xf6 ? 1 : h <= 0xf9 ? 2 : h <= 0xfc ? 4 : 8;
+			size = 1 + lengthSize + NumberUtil.toLong(vpack, start + 1, lengthSize);
 		} else {
-			switch (ValueTypeUtil.get(head)) {
-			case ARRAY:
-			case OBJECT:
-				if (head == 0x13 || head == 0x14) {
-					// compact Array or Object
-					size = NumberUtil.readVariableValueLength(vpack, start + 1, false);
-				} else /* if (head <= 0x14) */ {
-					size = NumberUtil.toLong(vpack, start + 1, ObjectArrayUtil.getOffsetSize(head));
-				}
-				break;
-			case STRING:
-				// long UTF-8 String
-				size = NumberUtil.toLong(vpack, start + 1, 8) + 1 + 8;
-				break;
-			case BINARY:
-				size = 1 + head - ((byte) 0xbf) + NumberUtil.toLong(vpack, start + 1, head - ((byte) 0xbf));
-				break;
-			case BCD:
-				if (head <= (byte) 0xcf) {
-					size = 1 + head - ((byte) 0xc7) + NumberUtil.toLong(vpack, start + 1, head - ((byte) 0xc7)) + 4;
-				} else {
-					size = 1 + head - ((byte) 0xcf) + NumberUtil.toLong(vpack, start + 1, head - ((byte) 0xcf)) + 4;
-				}
-				break;
-			case TAGGED:
-				int offset = tagsOffset(start);
-				size = getByteSize(start + offset) + offset;
-				break;
-			case CUSTOM:
-				if (head == (byte) 0xf4 || head == (byte) 0xf5 || head == (byte) 0xf6) {
-					size = 2 + NumberUtil.toLong(vpack, start + 1, 1);
-				} else if (head == (byte) 0xf7 || head == (byte) 0xf8 || head == (byte) 0xf9) {
-					size = 3 + NumberUtil.toLong(vpack, start + 1, 2);
-				} else if (head == (byte) 0xfa || head == (byte) 0xfb || head == (byte) 0xfc) {
-					size = 5 + NumberUtil.toLong(vpack, start + 1, 4);
-				} else /* if (head == 0xfd || head == 0xfe || head == 0xff) */ {
-					size = 9 + NumberUtil.toLong(vpack, start + 1, 8);
-				}
-				break;
-			default:
-				// TODO
-				throw new IllegalStateException("Invalid type for byteSize()");
-			}
+			throw new IllegalStateException("Invalid type for byteSize()");
 		}
 		return (int) size;
 	}
 
-	private int tagOffset(int start) {
+	private static int tagOffset(final byte[] vpack, int start) {
 		byte v = vpack[start];
 
-		if(ValueTypeUtil.get(v) == ValueType.TAGGED) {
+		if(ValueHeadUtil.isType(ValueHeadUtil.get(v), ValueType.TAGGED)) {
 			if(v == (byte)0xee) {
 				return 2;
 			} else if(v == (byte)0xef) {
@@ -582,11 +689,11 @@ public class VPackSlice implements Serializable {
 		return 0;
 	}
 
-	private int tagsOffset(int start) {
+	static int tagsOffset(final byte[] vpack, int start) {
 		int ret = 0;
 
-		while(ValueTypeUtil.get(vpack[start]) == ValueType.TAGGED) {
-			int offset = tagOffset(start);
+		while(ValueHeadUtil.isType(ValueHeadUtil.get(vpack[start]), ValueType.TAGGED)) {
+			int offset = tagOffset(vpack, start);
 			ret += offset;
 			start += offset;
 		}
@@ -609,67 +716,282 @@ public class VPackSlice implements Serializable {
 		if (!isObject()) {
 			throw new VPackValueTypeException(ValueType.OBJECT);
 		}
-		final byte head = head();
-		VPackSlice result;
 		if (attribute == null) {
-			result = NONE_SLICE;
-		} else if (head == 0x0a) {
+			return NONE_SLICE;
+		}
+		final byte[] name = new byte[StringUtil.encodedLength(attribute)];
+		StringUtil.encode(attribute, name, 0);
+		return getByName(name, -1);
+	}
+
+	/**
+	 * @param key
+	 *            pre-encoded attribute name
+	 * @return the value of the attribute, or a None slice if the object has no such attribute
+	 * @throws VPackValueTypeException
+	 *             if this slice is not an Object
+	 */
+	public VPackSlice get(final VPackKey key) throws VPackException {
+		if (!isObject()) {
+			throw new VPackValueTypeException(ValueType.OBJECT);
+		}
+		if (key == null) {
+			return NONE_SLICE;
+		}
+		return getByName(key.getName(), key.getTranslated());
+	}
+
+	/**
+	 * Looks up several attributes at once. Unless the object is sorted and large compared to the number of keys, its
+	 * members are scanned a single time for all keys instead of once per key.
+	 *
+	 * @param keys
+	 *            pre-encoded attribute names, null entries are never found
+	 * @param values
+	 *            receives the value of every attribute at the index of its key, or a None slice if the object has no
+	 *            such attribute
+	 * @return the number of attributes found
+	 * @throws VPackValueTypeException
+	 *             if this slice is not an Object
+	 */
+	public int get(final VPackKey[] keys, final VPackSlice[] values) throws VPackException {
+		if (!isObject()) {
+			throw new VPackValueTypeException(ValueType.OBJECT);
+		}
+		if (values.length < keys.length) {
+			throw new IllegalArgumentException("values must have room for all keys");
+		}
+		Arrays.fill(values, 0, keys.length, NONE_SLICE);
+		int wanted = 0;
+		for (final VPackKey key : keys) {
+			if (key != null) {
+				wanted++;
+			}
+		}
+		final long n = getMemberCount(vpack, start);
+		if (n == 0 || wanted == 0) {
+			return 0;
+		}
+		final byte head = head();
+		int found = 0;
+		if (head >= 0x0b && head <= 0x0e && n >= 4 && (long) wanted * (64 - Long.numberOfLeadingZeros(n)) < n) {
+			// few keys in a large sorted object, binary search each of them
+			for (int i = 0; i < keys.length; i++) {
+				final VPackKey key = keys[i];
+				final int keyPos = key != null ? findKey(vpack, start, key.getName(), key.getTranslated()) : -1;
+				if (keyPos >= 0) {
+					values[i] = new VPackSlice(vpack, keyPos + getByteSize(vpack, keyPos));
+					found++;
+				}
+			}
+			return found;
+		}
+		int keyPos;
+		if (head == 0x14) {
+			final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+			keyPos = (int) (start + 1 + NumberUtil.getVariableValueLength(end));
+		} else {
+			keyPos = start + findDataOffset(vpack, start);
+		}
+		for (long index = 0; index < n && found < wanted; index++) {
+			final int valuePos = keyPos + getByteSize(vpack, keyPos);
+			for (int i = 0; i < keys.length; i++) {
+				final VPackKey key = keys[i];
+				if (key != null && values[i] == NONE_SLICE
+						&& isKeyEqual(vpack, keyPos, key.getName(), key.getTranslated())) {
+					values[i] = new VPackSlice(vpack, valuePos);
+					found++;
+				}
+			}
+			keyPos = valuePos + getByteSize(vpack, valuePos);
+		}
+		return found;
+	}
+
+	/**
+	 * Looks up several attributes at once, see {@link #get(VPackKey[], VPackSlice[])}.
+	 *
+	 * @return the value of every attribute at the index of its name, or a None slice if the object has no such
+	 *         attribute
+	 * @throws VPackValueTypeException
+	 *             if this slice is not an Object
+	 */
+	public VPackSlice[] get(final String... attributes) throws VPackException {
+		final VPackKey[] keys = new VPackKey[attributes.length];
+		for (int i = 0; i < attributes.length; i++) {
+			keys[i] = attributes[i] != null ? new VPackKey(attributes[i]) : null;
+		}
+		final VPackSlice[] values = new VPackSlice[attributes.length];
+		get(keys, values);
+		return values;
+	}
+
+	/**
+	 * Looks up an attribute by the UTF-8 bytes of its name, comparing keys byte by byte without decoding them.
+	 *
+	 * @param translated
+	 *            translated integer key of the attribute, or -1 to translate integer keys of this object instead
+	 */
+	private VPackSlice getByName(final byte[] name, final long translated) {
+		final int keyPos = compactIndex != null ? compactIndex.findKey(vpack, start, name, translated)
+				: findKey(vpack, start, name, translated);
+		return keyPos >= 0 ? new VPackSlice(vpack, keyPos + getByteSize(vpack, keyPos)) : NONE_SLICE;
+	}
+
+	/**
+	 * Looks up an attribute of the Object at the given position.
+	 *
+	 * @param translated
+	 *            translated integer key of the attribute, or -1 to translate integer keys of the object instead
+	 * @return the position of the attribute key, or -1 if the object has no such attribute
+	 */
+	static int findKey(final byte[] vpack, final int start, final byte[] name, final long translated) {
+		final byte head = vpack[start];
+		if (head == 0x0a) {
 			// special case, empty object
-			result = NONE_SLICE;
-		} else if (head == 0x14) {
+			return -1;
+		}
+		if (head == 0x14) {
 			// compact Object
-			result = getFromCompactObject(attribute);
+			return searchCompactObjectKey(vpack, start, name, translated);
+		}
+		final int offsetsize = ValueHeadUtil.getOffsetSize(ValueHeadUtil.get(head));
+		final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
+		final long n;
+		if (offsetsize < 8) {
+			n = NumberUtil.toLong(vpack, start + 1 + offsetsize, offsetsize);
 		} else {
-			final int offsetsize = ObjectArrayUtil.getOffsetSize(head);
-			final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
-			final long n;
-			if (offsetsize < 8) {
-				n = NumberUtil.toLong(vpack, start + 1 + offsetsize, offsetsize);
-			} else {
-				n = NumberUtil.toLong(vpack, (int) (start + end - offsetsize), offsetsize);
+			n = NumberUtil.toLong(vpack, (int) (start + end - offsetsize), offsetsize);
+		}
+		if (n == 1) {
+			// Just one attribute, there is no index table!
+			final int keyPos = start + findDataOffset(vpack, start);
+			return isKeyEqual(vpack, keyPos, name, translated) ? keyPos : -1;
+		}
+		final long ieBase = end - n * offsetsize - (offsetsize == 8 ? 8 : 0);
+		final boolean sorted = head >= 0x0b && head <= 0x0e;
+		if (sorted && n >= 4) {
+			return searchObjectKeyBinary(vpack, start, name, ieBase, offsetsize, n);
+		}
+		for (long index = 0; index < n; index++) {
+			final long offset = ieBase + index * offsetsize;
+			final int keyPos = (int) (start + NumberUtil.toLong(vpack, (int) (start + offset), offsetsize));
+			if (isKeyEqual(vpack, keyPos, name, translated)) {
+				return keyPos;
 			}
-			if (n == 1) {
-				// Just one attribute, there is no index table!
-				final VPackSlice key = new VPackSlice(vpack, start + findDataOffset());
-
-				if (key.isString()) {
-					if (key.isEqualString(attribute)) {
-						result = new VPackSlice(vpack, key.start + key.getByteSize());
-					} else {
-						// no match
-						result = NONE_SLICE;
-					}
-				} else if (key.isInteger()) {
-					// translate key
-					if (key.translateUnchecked().isEqualString(attribute)) {
-						result = new VPackSlice(vpack, key.start + key.getByteSize());
-					} else {
-						// no match
-						result = NONE_SLICE;
-					}
-				} else {
-					// no match
-					result = NONE_SLICE;
-				}
-			} else {
-				final long ieBase = end - n * offsetsize - (offsetsize == 8 ? 8 : 0);
-
-				// only use binary search for attributes if we have at least
-				// this many entries
-				// otherwise we'll always use the linear search
-				final long sortedSearchEntriesThreshold = 4;
-
-				final boolean sorted = head >= 0x0b && head <= 0x0e;
-				if (sorted && n >= sortedSearchEntriesThreshold) {
-					// This means, we have to handle the special case n == 1
-					// only in the linear search!
-					result = searchObjectKeyBinary(attribute, ieBase, offsetsize, n);
-				} else {
-					result = searchObjectKeyLinear(attribute, ieBase, offsetsize, n);
-				}
+		}
+		return -1;
+	}
+
+	private static int searchCompactObjectKey(
+		final byte[] vpack,
+		final int start,
+		final byte[] name,
+		final long translated) {
+		final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
+		final long n = NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
+		int keyPos = (int) (start + 1 + NumberUtil.getVariableValueLength(end));
+		for (long index = 0; index < n; index++) {
+			final int valuePos = keyPos + getByteSize(vpack, keyPos);
+			if (isKeyEqual(vpack, keyPos, name, translated)) {
+				return keyPos;
 			}
+			keyPos = valuePos + getByteSize(vpack, valuePos);
 		}
-		return result;
+		return -1;
+	}
+
+	/**
+	 * @return whether the key at the given position is the attribute with the given UTF-8 name. String keys are
+	 *         compared byte by byte, integer keys by their translation.
+	 */
+	static boolean isKeyEqual(final byte[] vpack, final int keyPos, final byte[] name, final long translated) {
+		final byte head = vpack[keyPos];
+		if (isStringHead(head)) {
+			return isStringEqual(vpack, keyPos, name);
+		}
+		if (isIntegerHead(head)) {
+			final long key = getIntegerKey(vpack, keyPos);
+			if (translated >= 0) {
+				return key == translated;
+			}
+			final VPackSlice translation = attributeTranslator.translate((int) key);
+			return translation != null && isStringEqual(translation.vpack, translation.start, name);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the order of the key at the given position relative to the given UTF-8 attribute name, or
+	 *         {@link #INVALID_KEY} if it is no valid key
+	 */
+	private static int compareKey(final byte[] vpack, final int keyPos, final byte[] name) {
+		final byte head = vpack[keyPos];
+		if (isStringHead(head)) {
+			return compareStringBytes(vpack, keyPos, name);
+		}
+		if (isIntegerHead(head)) {
+			final VPackSlice translation = attributeTranslator.translate((int) getIntegerKey(vpack, keyPos));
+			return compareStringBytes(translation != null ? translation : NONE_SLICE, name);
+		}
+		return INVALID_KEY;
+	}
+
+	private static int compareStringBytes(final VPackSlice slice, final byte[] name) {
+		return slice.isString() ? compareStringBytes(slice.vpack, slice.start, name) : -1;
+	}
+
+	/**
+	 * Compares the String value at the given position with the given UTF-8 bytes, unsigned byte by byte.
+	 */
+	private static int compareStringBytes(final byte[] vpack, final int pos, final byte[] name) {
+		final int length;
+		final int offset;
+		if (vpack[pos] == (byte) 0xbf) {
+			length = (int) NumberUtil.toLong(vpack, pos + 1, 8);
+			offset = pos + 9;
+		} else {
+			length = (vpack[pos] & 0xff) - 0x40;
+			offset = pos + 1;
+		}
+		return ByteArrayAccess.compareUnsigned(vpack, offset, length, name, 0, name.length);
+	}
+
+	/**
+	 * @return whether the String value at the given position consists of the given UTF-8 bytes. Lengths are compared
+	 *         before any content byte.
+	 */
+	private static boolean isStringEqual(final byte[] vpack, final int pos, final byte[] name) {
+		final int length;
+		final int offset;
+		if (vpack[pos] == (byte) 0xbf) {
+			length = (int) NumberUtil.toLong(vpack, pos + 1, 8);
+			offset = pos + 9;
+		} else {
+			length = (vpack[pos] & 0xff) - 0x40;
+			offset = pos + 1;
+		}
+		return length == name.length && ByteArrayAccess.mismatch(vpack, offset, name, 0, length) < 0;
+	}
+
+	static boolean isStringHead(final byte head) {
+		return (head & 0xff) >= 0x40 && (head & 0xff) <= 0xbf;
+	}
+
+	static boolean isIntegerHead(final byte head) {
+		return head >= 0x20 && head <= 0x3f;
+	}
+
+	static long getIntegerKey(final byte[] vpack, final int pos) {
+		final byte head = vpack[pos];
+		if (head >= 0x30 && head <= 0x39) {
+			return head - 0x30;
+		} else if (head >= 0x3a) {
+			return head - 0x40;
+		} else if (head >= 0x28) {
+			return NumberUtil.toLong(vpack, pos + 1, head - 0x27);
+		}
+		return NumberUtil.toLong(vpack, pos + 1, head - 0x1f, true);
 	}
 
 	/**
@@ -690,54 +1012,38 @@ public class VPackSlice implements Serializable {
 		throw new VPackKeyTypeException("Cannot translate key of this type");
 	}
 
-	private VPackSlice getFromCompactObject(final String attribute)
-			throws VPackKeyTypeException, VPackNeedAttributeTranslatorException {
-		for (final Iterator<Entry<String, VPackSlice>> iterator = objectIterator(); iterator.hasNext();) {
-			final Entry<String, VPackSlice> next = iterator.next();
-			if (next.getKey().equals(attribute)) {
-				return next.getValue();
-			}
-		}
-		// not found
-		return NONE_SLICE;
-	}
-
-	private VPackSlice searchObjectKeyBinary(
-		final String attribute,
+	private static int searchObjectKeyBinary(
+		final byte[] vpack,
+		final int start,
+		final byte[] attributeBytes,
 		final long ieBase,
 		final int offsetsize,
 		final long n) throws VPackValueTypeException, VPackNeedAttributeTranslatorException {
 
-		VPackSlice result;
+		int result;
 		long l = 0;
 		long r = n - 1;
 
-		byte[] attributeBytes = attribute.getBytes(StandardCharsets.UTF_8);
 		for (;;) {
 			// midpoint
 			final long index = l + ((r - l) / 2);
 			final long offset = ieBase + index * offsetsize;
 			final long keyIndex = NumberUtil.toLong(vpack, (int) (start + offset), offsetsize);
-			final VPackSlice key = new VPackSlice(vpack, (int) (start + keyIndex));
-			int res;
-			if (key.isString()) {
-				res = key.getAsStringSlice().compareToBytes(attributeBytes);
-			} else if (key.isInteger()) {
-				// translate key
-				res = key.translateUnchecked().getAsStringSlice().compareToBytes(attributeBytes);
-			} else {
+			final int keyPos = (int) (start + keyIndex);
+			final int res = compareKey(vpack, keyPos, attributeBytes);
+			if (res == INVALID_KEY) {
 				// invalid key
-				result = NONE_SLICE;
+				result = -1;
 				break;
 			}
 			if (res == 0) {
 				// found
-				result = new VPackSlice(vpack, key.start + key.getByteSize());
+				result = keyPos;
 				break;
 			}
 			if (res > 0) {
 				if (index == 0) {
-					result = NONE_SLICE;
+					result = -1;
 					break;
 				}
 				r = index - 1;
@@ -745,46 +1051,13 @@ public class VPackSlice implements Serializable {
 				l = index + 1;
 			}
 			if (r < l) {
-				result = NONE_SLICE;
+				result = -1;
 				break;
 			}
 		}
 		return result;
 	}
 
-	private VPackSlice searchObjectKeyLinear(
-		final String attribute,
-		final long ieBase,
-		final int offsetsize,
-		final long n) throws VPackValueTypeException, VPackNeedAttributeTranslatorException {
-
-		VPackSlice result = NONE_SLICE;
-		for (long index = 0; index < n; index++) {
-			final long offset = ieBase + index * offsetsize;
-			final long keyIndex = NumberUtil.toLong(vpack, (int) (start + offset), offsetsize);
-			final VPackSlice key = new VPackSlice(vpack, (int) (start + keyIndex));
-			if (key.isString()) {
-				if (!key.isEqualString(attribute)) {
-					continue;
-				}
-			} else if (key.isInteger()) {
-				// translate key
-				if (!key.translateUnchecked().isEqualString(attribute)) {
-					continue;
-				}
-			} else {
-				// invalid key type
-				result = NONE_SLICE;
-				break;
-			}
-			// key is identical. now return value
-			result = new VPackSlice(vpack, key.start + key.getByteSize());
-			break;
-		}
-		return result;
-
-	}
-
 	public VPackSlice keyAt(final int index) {
 		if (!isObject()) {
 			throw new VPackValueTypeException(ValueType.OBJECT);
@@ -813,23 +1086,52 @@ public class VPackSlice implements Serializable {
 	 * @return the offset for the nth member from an Array or Object type
 	 */
 	private int getNthOffset(final int index) {
-		final int offset;
+		if (compactIndex != null) {
+			return compactIndex.getOffset(index);
+		}
+		return getNthOffset(vpack, start, index);
+	}
+
+	/**
+	 * Compact Arrays and Objects have no index table, so random access and attribute lookups walk their members.
+	 * Returns a slice of the same value with a side index over the offsets and, for Objects, the key hashes of the
+	 * members, which makes both constant time. Building the index walks all members once and takes up to six ints per
+	 * member, so it pays off only for a slice that is accessed repeatedly. Keep the returned slice for those accesses,
+	 * slices returned by {@link #get(int)} or {@link #get(String)} are not indexed. The index is immutable, so the
+	 * returned slice can be shared by concurrent readers.
+	 *
+	 * @return an indexed slice of this compact Array or Object, or this slice if it is already indexed, has an index
+	 *         table or fewer than 8 members
+	 */
+	public VPackSlice indexed() {
 		final byte head = head();
+		if (compactIndex != null || head != 0x13 && head != 0x14
+				|| getMemberCount(vpack, start) < CompactIndex.MIN_MEMBERS) {
+			return this;
+		}
+		return new VPackSlice(vpack, start, CompactIndex.build(vpack, start));
+	}
+
+	/**
+	 * @return the offset for the nth member from the Array or Object at the given position
+	 */
+	static int getNthOffset(final byte[] vpack, final int start, final int index) {
+		final int offset;
+		final byte head = vpack[start];
 		if (head == 0x13 || head == 0x14) {
 			// compact Array or Object
-			offset = getNthOffsetFromCompact(index);
+			offset = getNthOffsetFromCompact(vpack, start, index);
 		} else if (head == 0x01 || head == 0x0a) {
 			// special case: empty Array or empty Object
 			throw new IndexOutOfBoundsException();
 		} else {
 			final long n;
-			final int offsetsize = ObjectArrayUtil.getOffsetSize(head);
+			final int offsetsize = ValueHeadUtil.getOffsetSize(ValueHeadUtil.get(head));
 			final long end = NumberUtil.toLong(vpack, start + 1, offsetsize);
-			int dataOffset = findDataOffset();
+			final int dataOffset = findDataOffset(vpack, start);
 			if (head <= 0x05) {
 				// array with no offset table or length
-				final VPackSlice first = new VPackSlice(vpack, start + dataOffset);
-				n = (end - dataOffset) / first.getByteSize();
+				n = (end - dataOffset) / getByteSize(vpack, start + dataOffset);
 			} else if (offsetsize < 8) {
 				n = NumberUtil.toLong(vpack, start + 1 + offsetsize, offsetsize);
 			} else {
@@ -842,10 +1144,7 @@ public class VPackSlice implements Serializable {
 				// no index table, but all array items have the same length
 				// or only one item is in the array
 				// now fetch first item and determine its length
-				if (dataOffset == 0) {
-					dataOffset = findDataOffset();
-				}
-				offset = dataOffset + index * new VPackSlice(vpack, start + dataOffset).getByteSize();
+				offset = dataOffset + index * getByteSize(vpack, start + dataOffset);
 			} else {
 				final long ieBase = end - n * offsetsize + index * offsetsize - (offsetsize == 8 ? 8 : 0);
 				offset = (int) NumberUtil.toLong(vpack, (int) (start + ieBase), offsetsize);
@@ -857,36 +1156,26 @@ public class VPackSlice implements Serializable {
 	/**
 	 * @return the offset for the nth member from a compact Array or Object type
 	 */
-	private int getNthOffsetFromCompact(final int index) {
+	private static int getNthOffsetFromCompact(final byte[] vpack, final int start, final int index) {
 		final long end = NumberUtil.readVariableValueLength(vpack, start + 1, false);
 		final long n = NumberUtil.readVariableValueLength(vpack, (int) (start + end - 1), true);
 		if (index >= n) {
 			throw new IndexOutOfBoundsException();
 		}
-		final byte head = head();
+		final byte head = vpack[start];
 		long offset = 1 + NumberUtil.getVariableValueLength(end);
 		long current = 0;
 		while (current != index) {
-			final long byteSize = new VPackSlice(vpack, (int) (start + offset)).getByteSize();
-			offset += byteSize;
+			offset += getByteSize(vpack, (int) (start + offset));
 			if (head == 0x14) {
-				offset += byteSize;
+				// skip the value as well
+				offset += getByteSize(vpack, (int) (start + offset));
 			}
 			++current;
 		}
 		return (int) offset;
 	}
 
-	private boolean isEqualString(final String s) {
-		final String string = getAsString();
-		return string.equals(s);
-	}
-
-	private int compareString(final String s) {
-		final String string = getAsString();
-		return string.compareTo(s);
-	}
-
 	public Iterator<VPackSlice> arrayIterator() {
 		if (isArray()) {
 			return new ArrayIterator(this);
@@ -941,18 +1230,136 @@ public class VPackSlice implements Serializable {
 		}
 	}
 
+	/**
+	 * @return a 64 bit hash of the bytes of this value, independent of its position in the buffer
+	 */
+	public long hash64() {
+		return hash64(0);
+	}
+
+	/**
+	 * @return a 64 bit hash of the bytes of this value with the given seed, independent of its position in the
+	 *         buffer
+	 */
+	public long hash64(final long seed) {
+		return HashUtil.hash64(vpack, start, getByteSize(), seed);
+	}
+
+	/**
+	 * @return a 64 bit hash which is equal for semantically equal values, see {@link #normalizedHash(long)}
+	 */
+	public long normalizedHash() {
+		return normalizedHash(0);
+	}
+
+	/**
+	 * Hashes this value independent of its encoding: numbers are hashed by their double value, whatever their
+	 * integer width or type, Strings by their content, Arrays independent of index tables and compact encoding, and
+	 * Objects independent of their attribute order, with translated keys hashed like their names and null members
+	 * like missing ones. Other values are hashed by their bytes.
+	 *
+	 * @return a 64 bit hash which is equal for values that are equal according to {@link VPackComparator}
+	 */
+	public long normalizedHash(final long seed) {
+		return normalizedHash(vpack, start, seed);
+	}
+
+	private static long normalizedHash(final byte[] vpack, final int pos, final long seed) {
+		final int info = ValueHeadUtil.get(vpack[pos]);
+		if ((info & ValueHeadUtil.NUMBER) != 0) {
+			final double value = getNumberAsDouble(vpack, pos);
+			// -0.0 equals 0.0
+			return HashUtil.hash64(Double.doubleToLongBits(value == 0.0 ? 0.0 : value), seed);
+		}
+		if ((info & ValueHeadUtil.STRING) != 0) {
+			return hashString(vpack, pos, seed);
+		}
+		if (ValueHeadUtil.isType(info, ValueType.BCD)) {
+			final double value = NumberUtil.toBigDecimal(vpack, pos).doubleValue();
+			return HashUtil.hash64(Double.doubleToLongBits(value == 0.0 ? 0.0 : value), seed);
+		}
+		if ((info & ValueHeadUtil.COMPOUND) == 0) {
+			return HashUtil.hash64(vpack, pos, getByteSize(vpack, pos), seed);
+		}
+		final long n = getMemberCount(vpack, pos);
+		int member = n > 0 ? firstMemberPosition(vpack, pos) : pos;
+		if ((info & ValueHeadUtil.ARRAY) != 0) {
+			long hash = HashUtil.hash64(n ^ 0xba5bedf00dL, seed);
+			for (long i = 0; i < n; i++) {
+				// chained through the seed, so the order of the members matters
+				hash ^= normalizedHash(vpack, member, hash);
+				member += getByteSize(vpack, member);
+			}
+			return hash;
+		}
+		final long objectSeed = HashUtil.hash64(0xf00ba44ba5L, seed);
+		long hash = objectSeed;
+		for (long i = 0; i < n; i++) {
+			final int valuePos = member + getByteSize(vpack, member);
+			// a null member equals a missing one
+			if (vpack[valuePos] != 0x18) {
+				final long keyHash = hashKey(vpack, member, objectSeed);
+				// combined independent of the order of the members
+				hash ^= keyHash;
+				hash ^= normalizedHash(vpack, valuePos, keyHash);
+			}
+			member = valuePos + getByteSize(vpack, valuePos);
+		}
+		return hash;
+	}
+
+	private static long hashKey(final byte[] vpack, final int keyPos, final long seed) {
+		if (isIntegerHead(vpack[keyPos])) {
+			final VPackSlice translation = attributeTranslator.translate((int) getIntegerKey(vpack, keyPos));
+			if (translation != null && translation.isString()) {
+				return hashString(translation.vpack, translation.start, seed);
+			}
+		}
+		return normalizedHash(vpack, keyPos, seed);
+	}
+
+	private static long hashString(final byte[] vpack, final int pos, final long seed) {
+		if (vpack[pos] == (byte) 0xbf) {
+			return HashUtil.hash64(vpack, pos + 9, (int) NumberUtil.toLong(vpack, pos + 1, 8), seed);
+		}
+		return HashUtil.hash64(vpack, pos + 1, (vpack[pos] & 0xff) - 0x40, seed);
+	}
+
+	/**
+	 * @return the value of the Double or integer at the given position, unsigned integers beyond the long range
+	 *         included
+	 */
+	private static double getNumberAsDouble(final byte[] vpack, final int pos) {
+		final int head = vpack[pos] & 0xff;
+		if (head == 0x1b) {
+			return NumberUtil.toDouble(vpack, pos + 1, 8);
+		}
+		if (head >= 0x30) {
+			return head <= 0x39 ? head - 0x30 : head - 0x40;
+		}
+		if (head >= 0x28) {
+			final long value = NumberUtil.toLong(vpack, pos + 1, head - 0x27);
+			return value >= 0 ? value : ((value >>> 1) | (value & 1)) * 2.0;
+		}
+		return NumberUtil.toLong(vpack, pos + 1, head - 0x1f, true);
+	}
+
+	/**
+	 * @return a hash of the bytes of this value, consistent with {@link #equals(Object)} and independent of its
+	 *         position in the buffer
+	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + start;
-
-		int arrayHash = 1;
-		for (int i = start, max = getByteSize(); i < max; i++)
-			arrayHash = 31 * arrayHash + vpack[i];
+		final long hash = hash64();
+		return (int) (hash ^ (hash >>> 32));
+	}
 
-		result = prime * result + arrayHash;
-		return result;
+	/**
+	 * @return true if both values are equal independent of their encoding, see {@link VPackComparator}. In contrast,
+	 *         {@link #equals(Object)} compares the bytes.
+	 */
+	public boolean semanticEquals(final VPackSlice other) {
+		return VPackComparator.isEqual(this, other);
 	}
 
 	@Override
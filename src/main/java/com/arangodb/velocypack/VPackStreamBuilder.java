@@ -0,0 +1,114 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.arangodb.velocypack.exception.VPackBuilderException;
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+
+/**
+ * {@link VPackBuilder} which writes every completed top level value to an {@link OutputStream} or a
+ * {@link WritableByteChannel} as soon as it is complete, and then starts over with the same buffer. The output is a
+ * sequence of concatenated VelocyPack values, which can be read one after another using
+ * {@link VPackSlice#getByteSize()}. The memory used is bounded by the largest single value instead of the whole
+ * output.
+ * <p>
+ * Values are not wrapped into an enclosing Array: every VelocyPack Array, including the compact one, needs its byte
+ * length in front of its members, which is not known before the last member has been written. To export many
+ * documents, add each one as a top level value.
+ * <p>
+ * {@link #slice()} only returns the value currently being built. Errors writing to the output are thrown as
+ * {@link VPackBuilderException}.
+ */
+public class VPackStreamBuilder extends VPackBuilder {
+
+	private final OutputStream out;
+	private final WritableByteChannel channel;
+	private long bytesWritten;
+
+	public VPackStreamBuilder(final OutputStream out) {
+		this(new DefaultVPackBuilderOptions(), out);
+	}
+
+	public VPackStreamBuilder(final BuilderOptions options, final OutputStream out) {
+		super(options);
+		this.out = out;
+		channel = null;
+	}
+
+	public VPackStreamBuilder(final WritableByteChannel channel) {
+		this(new DefaultVPackBuilderOptions(), channel);
+	}
+
+	public VPackStreamBuilder(final BuilderOptions options, final WritableByteChannel channel) {
+		super(options);
+		out = null;
+		this.channel = channel;
+	}
+
+	@Override
+	protected void topLevelValueCompleted() {
+		final int size = getVpackSize();
+		final byte[] array = getSink().array();
+		try {
+			if (out != null) {
+				out.write(array, 0, size);
+			} else {
+				final ByteBuffer buffer = ByteBuffer.wrap(array, 0, size);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		} catch (final IOException e) {
+			throw new VPackBuilderException(e);
+		}
+		bytesWritten += size;
+		reset();
+	}
+
+	/**
+	 * Flushes the underlying {@link OutputStream}. Completed values have already been written to it.
+	 *
+	 * @return this builder
+	 */
+	public VPackStreamBuilder flush() {
+		if (out != null) {
+			try {
+				out.flush();
+			} catch (final IOException e) {
+				throw new VPackBuilderException(e);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @return the number of bytes written to the output so far
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+}
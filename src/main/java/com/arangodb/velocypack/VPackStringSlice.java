@@ -1,5 +1,7 @@
 package com.arangodb.velocypack;
 
+import com.arangodb.velocypack.internal.util.ByteArrayAccess;
+
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -32,11 +34,7 @@ public class VPackStringSlice implements Comparable<VPackStringSlice> {
     }
 
     public int compareToBytes(byte[] other, int off, int oLen) {
-        for (int i = 0; i < length && i < oLen; i++) {
-            int c = (vpack[start + i] & 0xff) - (other[off + i] & 0xff);
-            if (c != 0) return c;
-        }
-        return length - oLen;
+        return ByteArrayAccess.compareUnsigned(vpack, start, length, other, off, oLen);
     }
 
     @Override
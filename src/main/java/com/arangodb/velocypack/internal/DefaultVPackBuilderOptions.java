@@ -30,11 +30,24 @@ public class DefaultVPackBuilderOptions implements BuilderOptions {
 
 	private boolean buildUnindexedArrays;
 	private boolean buildUnindexedObjects;
+	private boolean usePadding;
+	private boolean useFixedIntegerWidth;
+	private boolean useNativeBigNumbers;
 
 	public DefaultVPackBuilderOptions() {
 		super();
+		reset();
+	}
+
+	/**
+	 * Restores the default of every setting.
+	 */
+	public void reset() {
 		buildUnindexedArrays = false;
 		buildUnindexedObjects = false;
+		usePadding = false;
+		useFixedIntegerWidth = false;
+		useNativeBigNumbers = false;
 	}
 
 	@Override
@@ -57,4 +70,34 @@ public class DefaultVPackBuilderOptions implements BuilderOptions {
 		this.buildUnindexedObjects = buildUnindexedObjects;
 	}
 
+	@Override
+	public boolean isUsePadding() {
+		return usePadding;
+	}
+
+	@Override
+	public void setUsePadding(final boolean usePadding) {
+		this.usePadding = usePadding;
+	}
+
+	@Override
+	public boolean isUseFixedIntegerWidth() {
+		return useFixedIntegerWidth;
+	}
+
+	@Override
+	public void setUseFixedIntegerWidth(final boolean useFixedIntegerWidth) {
+		this.useFixedIntegerWidth = useFixedIntegerWidth;
+	}
+
+	@Override
+	public boolean isUseNativeBigNumbers() {
+		return useNativeBigNumbers;
+	}
+
+	@Override
+	public void setUseNativeBigNumbers(final boolean useNativeBigNumbers) {
+		this.useNativeBigNumbers = useNativeBigNumbers;
+	}
+
 }
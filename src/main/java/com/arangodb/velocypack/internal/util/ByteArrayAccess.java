@@ -0,0 +1,94 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack.internal.util;
+
+/**
+ * Little endian reads and writes of multi-byte values and comparisons of byte ranges. This is the Java 8 version
+ * working byte by byte. The multi-release jar replaces it on Java 9 and later with a version based on
+ * {@code MethodHandles.byteArrayViewVarHandle()} and the vectorized comparisons of {@code java.util.Arrays}, which is
+ * maintained in {@code src/main/java9} and must keep the same signatures.
+ */
+public final class ByteArrayAccess {
+
+	private ByteArrayAccess() {
+		super();
+	}
+
+	public static short getShortLE(final byte[] array, final int offset) {
+		return (short) ((array[offset] & 0xff) | array[offset + 1] << 8);
+	}
+
+	public static int getIntLE(final byte[] array, final int offset) {
+		return (array[offset] & 0xff) | (array[offset + 1] & 0xff) << 8 | (array[offset + 2] & 0xff) << 16
+				| array[offset + 3] << 24;
+	}
+
+	public static long getLongLE(final byte[] array, final int offset) {
+		return (getIntLE(array, offset) & 0xffffffffL) | (long) getIntLE(array, offset + 4) << 32;
+	}
+
+	public static void putIntLE(final byte[] array, final int offset, final int value) {
+		array[offset] = (byte) value;
+		array[offset + 1] = (byte) (value >> 8);
+		array[offset + 2] = (byte) (value >> 16);
+		array[offset + 3] = (byte) (value >> 24);
+	}
+
+	public static void putLongLE(final byte[] array, final int offset, final long value) {
+		putIntLE(array, offset, (int) value);
+		putIntLE(array, offset + 4, (int) (value >> 32));
+	}
+
+	/**
+	 * @return the index of the first differing byte relative to the offsets, or -1 if both ranges are equal
+	 */
+	public static int mismatch(final byte[] a, final int aOffset, final byte[] b, final int bOffset, final int length) {
+		for (int i = 0; i < length; i++) {
+			if (a[aOffset + i] != b[bOffset + i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares two byte ranges lexicographically, treating bytes as unsigned. A proper prefix is less than the longer
+	 * range.
+	 *
+	 * @return a negative value, zero or a positive value if the first range is less than, equal to or greater than the
+	 *         second
+	 */
+	public static int compareUnsigned(
+		final byte[] a,
+		final int aOffset,
+		final int aLength,
+		final byte[] b,
+		final int bOffset,
+		final int bLength) {
+		final int i = mismatch(a, aOffset, b, bOffset, Math.min(aLength, bLength));
+		if (i >= 0) {
+			return (a[aOffset + i] & 0xff) - (b[bOffset + i] & 0xff);
+		}
+		return aLength - bLength;
+	}
+
+}
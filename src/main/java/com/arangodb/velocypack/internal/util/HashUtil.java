@@ -0,0 +1,111 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack.internal.util;
+
+/**
+ * 64 bit xxHash (XXH64) of byte ranges and single values, reading 8 bytes at a time.
+ */
+public class HashUtil {
+
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME3 = 0x165667B19E3779F9L;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+	private HashUtil() {
+		super();
+	}
+
+	/**
+	 * @return the XXH64 hash of the given bytes
+	 */
+	public static long hash64(final byte[] array, final int offset, final int length, final long seed) {
+		final int end = offset + length;
+		int i = offset;
+		long hash;
+		if (length >= 32) {
+			long v1 = seed + PRIME1 + PRIME2;
+			long v2 = seed + PRIME2;
+			long v3 = seed;
+			long v4 = seed - PRIME1;
+			for (final int limit = end - 32; i <= limit; i += 32) {
+				v1 = round(v1, ByteArrayAccess.getLongLE(array, i));
+				v2 = round(v2, ByteArrayAccess.getLongLE(array, i + 8));
+				v3 = round(v3, ByteArrayAccess.getLongLE(array, i + 16));
+				v4 = round(v4, ByteArrayAccess.getLongLE(array, i + 24));
+			}
+			hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12)
+					+ Long.rotateLeft(v4, 18);
+			hash = merge(hash, v1);
+			hash = merge(hash, v2);
+			hash = merge(hash, v3);
+			hash = merge(hash, v4);
+		} else {
+			hash = seed + PRIME5;
+		}
+		hash += length;
+		for (; i + 8 <= end; i += 8) {
+			hash ^= round(0, ByteArrayAccess.getLongLE(array, i));
+			hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+		}
+		if (i + 4 <= end) {
+			hash ^= (ByteArrayAccess.getIntLE(array, i) & 0xffffffffL) * PRIME1;
+			hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+			i += 4;
+		}
+		for (; i < end; i++) {
+			hash ^= (array[i] & 0xff) * PRIME5;
+			hash = Long.rotateLeft(hash, 11) * PRIME1;
+		}
+		return avalanche(hash);
+	}
+
+	/**
+	 * @return the XXH64 hash of the 8 little endian bytes of the given value
+	 */
+	public static long hash64(final long value, final long seed) {
+		long hash = seed + PRIME5 + 8;
+		hash ^= round(0, value);
+		hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+		return avalanche(hash);
+	}
+
+	private static long round(final long acc, final long input) {
+		return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+	}
+
+	private static long merge(final long acc, final long value) {
+		return (acc ^ round(0, value)) * PRIME1 + PRIME4;
+	}
+
+	private static long avalanche(final long value) {
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= PRIME2;
+		hash ^= hash >>> 29;
+		hash *= PRIME3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+}
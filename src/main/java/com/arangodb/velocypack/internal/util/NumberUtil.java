@@ -20,6 +20,7 @@
 
 package com.arangodb.velocypack.internal.util;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 
 /**
@@ -44,6 +45,20 @@ public class NumberUtil {
 	}
 
 	public static long toLong(final byte[] array, final int offset, final int length, final boolean fillNegativeBytes) {
+		switch (length) {
+		case 8:
+			return ByteArrayAccess.getLongLE(array, offset);
+		case 4:
+			final int i = ByteArrayAccess.getIntLE(array, offset);
+			return fillNegativeBytes ? i : i & 0xffffffffL;
+		case 2:
+			final short s = ByteArrayAccess.getShortLE(array, offset);
+			return fillNegativeBytes ? s : s & 0xffff;
+		case 1:
+			return fillNegativeBytes ? array[offset] : array[offset] & 0xff;
+		default:
+			break;
+		}
 		long result = 0;
 		if (fillNegativeBytes && length < LONG_BYTES && array[(offset + length - 1)] <= (byte) -1) {
 			for (int i = 0; i <= 8 - length; i++) {
@@ -58,13 +73,63 @@ public class NumberUtil {
 		return result;
 	}
 
+	/**
+	 * @return the unsigned little endian integer of the given length
+	 */
 	public static BigInteger toBigInteger(final byte[] array, final int offset, final int length) {
-		BigInteger result = new BigInteger(1, new byte[] {});
-		for (int i = (offset + length - 1); i >= offset; i--) {
-			result = result.shiftLeft(LONG_BYTES);
-			result = result.or(BigInteger.valueOf(array[i] & 0xFF));
+		if (length < LONG_BYTES || (length == LONG_BYTES && array[offset + length - 1] >= 0)) {
+			return BigInteger.valueOf(toLong(array, offset, length));
 		}
-		return result;
+		final byte[] bigEndian = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bigEndian[i] = array[offset + length - 1 - i];
+		}
+		return new BigInteger(1, bigEndian);
+	}
+
+	/**
+	 * Reads a packed BCD value (heads 0xc8 - 0xd7): the byte length of the mantissa, a 4 byte little endian exponent
+	 * and the mantissa with two decimal digits per byte, most significant first.
+	 *
+	 * @param array
+	 *            VelocyPack data
+	 * @param offset
+	 *            position of the head
+	 * @return the value
+	 */
+	public static BigDecimal toBigDecimal(final byte[] array, final int offset) {
+		final int head = array[offset] & 0xff;
+		final boolean negative = head >= 0xd0;
+		final int lengthSize = head - (negative ? 0xcf : 0xc7);
+		final int length = (int) toLong(array, offset + 1, lengthSize);
+		final int exponent = (int) toLong(array, offset + 1 + lengthSize, 4);
+		final int mantissa = offset + 1 + lengthSize + 4;
+		// collect up to 18 digits in a long, before falling back to BigInteger arithmetic
+		BigInteger big = null;
+		long chunk = 0;
+		int chunkDigits = 0;
+		for (int i = mantissa; i < mantissa + length; i++) {
+			chunk = chunk * 100 + ((array[i] >> 4) & 0x0f) * 10 + (array[i] & 0x0f);
+			chunkDigits += 2;
+			if (chunkDigits == 18) {
+				big = big == null ? BigInteger.valueOf(chunk)
+						: big.multiply(BigInteger.TEN.pow(18)).add(BigInteger.valueOf(chunk));
+				chunk = 0;
+				chunkDigits = 0;
+			}
+		}
+		BigInteger unscaled;
+		if (big == null) {
+			unscaled = BigInteger.valueOf(chunk);
+		} else if (chunkDigits > 0) {
+			unscaled = big.multiply(BigInteger.TEN.pow(chunkDigits)).add(BigInteger.valueOf(chunk));
+		} else {
+			unscaled = big;
+		}
+		if (negative) {
+			unscaled = unscaled.negate();
+		}
+		return new BigDecimal(unscaled, -exponent);
 	}
 
 	/**
@@ -0,0 +1,114 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack.internal.util;
+
+/**
+ * Encodes Java strings as UTF-8 directly into a target array, with the same output as
+ * {@code String.getBytes(StandardCharsets.UTF_8)}: unpaired surrogates are replaced by {@code '?'}. Also hashes
+ * encoded names.
+ */
+public class StringUtil {
+
+	private StringUtil() {
+		super();
+	}
+
+	/**
+	 * @return the exact number of bytes of the UTF-8 encoding of the given string
+	 */
+	public static int encodedLength(final String value) {
+		final int length = value.length();
+		int i = 0;
+		// ASCII fast path
+		while (i < length && value.charAt(i) < 0x80) {
+			i++;
+		}
+		int encodedLength = i;
+		while (i < length) {
+			final char c = value.charAt(i++);
+			if (c < 0x80) {
+				encodedLength += 1;
+			} else if (c < 0x800) {
+				encodedLength += 2;
+			} else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+				encodedLength += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// unpaired surrogate, encoded as '?'
+				encodedLength += 1;
+			} else {
+				encodedLength += 3;
+			}
+		}
+		return encodedLength;
+	}
+
+	/**
+	 * Writes the UTF-8 encoding of the given string into the array, which must have room for
+	 * {@link #encodedLength(String)} bytes starting at offset.
+	 *
+	 * @return the offset behind the last written byte
+	 */
+	public static int encode(final String value, final byte[] array, final int offset) {
+		final int length = value.length();
+		int pos = offset;
+		int i = 0;
+		// ASCII fast path
+		for (char c; i < length && (c = value.charAt(i)) < 0x80; i++) {
+			array[pos++] = (byte) c;
+		}
+		while (i < length) {
+			final char c = value.charAt(i++);
+			if (c < 0x80) {
+				array[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				array[pos++] = (byte) (0xc0 | (c >> 6));
+				array[pos++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+				final int codePoint = Character.toCodePoint(c, value.charAt(i++));
+				array[pos++] = (byte) (0xf0 | (codePoint >> 18));
+				array[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+				array[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+				array[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				array[pos++] = (byte) '?';
+			} else {
+				array[pos++] = (byte) (0xe0 | (c >> 12));
+				array[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				array[pos++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * @return FNV-1a hash of the given UTF-8 bytes
+	 */
+	public static int hash(final byte[] array, final int offset, final int length) {
+		int hash = 0x811c9dc5;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			hash ^= array[i] & 0xff;
+			hash *= 0x01000193;
+		}
+		return hash;
+	}
+
+}
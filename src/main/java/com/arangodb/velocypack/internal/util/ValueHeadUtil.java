@@ -0,0 +1,135 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack.internal.util;
+
+import com.arangodb.velocypack.ValueType;
+
+/**
+ * Packed metadata for every head byte, so that type checks and size computations need a single table lookup and bit
+ * tests. It is derived from {@link ValueTypeUtil}, {@link ValueLengthUtil} and {@link ObjectArrayUtil}:
+ *
+ * <pre>
+ * bits  0 -  4  ordinal of the ValueType
+ * bits  5 - 12  byte size of values with fixed size, 0 otherwise
+ * bits 13 - 16  offset size of Arrays and Objects
+ * bits 17 - 20  offset of the first member of Arrays and Objects with index table or length
+ * bits 21 -     flags
+ * </pre>
+ */
+public class ValueHeadUtil {
+
+	private static final ValueType[] TYPES = ValueType.values();
+
+	private static final int TYPE_MASK = 0x1f;
+	private static final int BYTE_SIZE_SHIFT = 5;
+	private static final int OFFSET_SIZE_SHIFT = 13;
+	private static final int FIRST_SUB_SHIFT = 17;
+	private static final int NIBBLE_MASK = 0x0f;
+
+	public static final int ARRAY = 1 << 21;
+	public static final int OBJECT = 1 << 22;
+	public static final int COMPOUND = ARRAY | OBJECT;
+	public static final int INTEGER = 1 << 23;
+	public static final int NUMBER = 1 << 24;
+	public static final int STRING = 1 << 25;
+	/**
+	 * compact Array or Object
+	 */
+	public static final int COMPACT = 1 << 26;
+
+	private static final int[] INFO = new int[256];
+
+	static {
+		for (int i = 0; i < INFO.length; i++) {
+			final byte head = (byte) i;
+			final ValueType type = ValueTypeUtil.get(head);
+			int info = type.ordinal() | ValueLengthUtil.get(head) << BYTE_SIZE_SHIFT;
+			switch (type) {
+			case ARRAY:
+			case OBJECT:
+				info |= type == ValueType.ARRAY ? ARRAY : OBJECT;
+				if (i == 0x13 || i == 0x14) {
+					info |= COMPACT;
+				} else {
+					info |= ObjectArrayUtil.getOffsetSize(head) << OFFSET_SIZE_SHIFT
+							| ObjectArrayUtil.getFirstSubMap(head) << FIRST_SUB_SHIFT;
+				}
+				break;
+			case INT:
+			case UINT:
+			case SMALLINT:
+				info |= INTEGER | NUMBER;
+				break;
+			case DOUBLE:
+				info |= NUMBER;
+				break;
+			case STRING:
+				info |= STRING;
+				break;
+			default:
+				break;
+			}
+			INFO[i] = info;
+		}
+	}
+
+	private ValueHeadUtil() {
+		super();
+	}
+
+	/**
+	 * @return the packed metadata of the given head byte
+	 */
+	public static int get(final byte head) {
+		return INFO[head & 0xff];
+	}
+
+	public static ValueType getType(final int info) {
+		return TYPES[info & TYPE_MASK];
+	}
+
+	public static boolean isType(final int info, final ValueType type) {
+		return (info & TYPE_MASK) == type.ordinal();
+	}
+
+	/**
+	 * @return the byte size of values with fixed size, 0 if the size is stored within the value
+	 */
+	public static int getByteSize(final int info) {
+		return info >> BYTE_SIZE_SHIFT & 0xff;
+	}
+
+	/**
+	 * @return the offset size of Arrays and Objects with index table or length, 0 otherwise
+	 */
+	public static int getOffsetSize(final int info) {
+		return info >> OFFSET_SIZE_SHIFT & NIBBLE_MASK;
+	}
+
+	/**
+	 * @return the smallest offset of the first member of Arrays and Objects with index table or length, 0 otherwise
+	 */
+	public static int getFirstSub(final int info) {
+		return info >> FIRST_SUB_SHIFT & NIBBLE_MASK;
+	}
+
+}
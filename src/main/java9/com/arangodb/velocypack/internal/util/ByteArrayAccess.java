@@ -0,0 +1,89 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+
+package com.arangodb.velocypack.internal.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Little endian reads and writes of multi-byte values and comparisons of byte ranges. This is the Java 9 version of
+ * the multi-release jar: values are accessed as a whole through byte array views, and ranges are compared with the
+ * vectorized methods of {@link Arrays}.
+ */
+public final class ByteArrayAccess {
+
+	private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class,
+		ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private ByteArrayAccess() {
+		super();
+	}
+
+	public static short getShortLE(final byte[] array, final int offset) {
+		return (short) SHORT.get(array, offset);
+	}
+
+	public static int getIntLE(final byte[] array, final int offset) {
+		return (int) INT.get(array, offset);
+	}
+
+	public static long getLongLE(final byte[] array, final int offset) {
+		return (long) LONG.get(array, offset);
+	}
+
+	public static void putIntLE(final byte[] array, final int offset, final int value) {
+		INT.set(array, offset, value);
+	}
+
+	public static void putLongLE(final byte[] array, final int offset, final long value) {
+		LONG.set(array, offset, value);
+	}
+
+	/**
+	 * @return the index of the first differing byte relative to the offsets, or -1 if both ranges are equal
+	 */
+	public static int mismatch(final byte[] a, final int aOffset, final byte[] b, final int bOffset, final int length) {
+		return Arrays.mismatch(a, aOffset, aOffset + length, b, bOffset, bOffset + length);
+	}
+
+	/**
+	 * Compares two byte ranges lexicographically, treating bytes as unsigned. A proper prefix is less than the longer
+	 * range.
+	 *
+	 * @return a negative value, zero or a positive value if the first range is less than, equal to or greater than the
+	 *         second
+	 */
+	public static int compareUnsigned(
+		final byte[] a,
+		final int aOffset,
+		final int aLength,
+		final byte[] b,
+		final int bOffset,
+		final int bLength) {
+		return Arrays.compareUnsigned(a, aOffset, aOffset + aLength, b, bOffset, bOffset + bLength);
+	}
+
+}
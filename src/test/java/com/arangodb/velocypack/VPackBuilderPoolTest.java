@@ -0,0 +1,158 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class VPackBuilderPoolTest {
+
+	@Test
+	public void reuseReleasedBuilder() {
+		final VPackBuilderPool pool = new VPackBuilderPool(2, 128, 1024);
+		final VPackBuilder builder = pool.acquire();
+		assertThat(builder.getCapacity(), is(128));
+		builder.add(ValueType.ARRAY).add("a").close();
+		pool.release(builder);
+		assertThat(pool.getIdleCount(), is(1));
+
+		final VPackBuilder reused = pool.acquire();
+		assertThat(reused, sameInstance(builder));
+		assertThat(reused.slice().isNone(), is(true));
+		assertThat(pool.getIdleCount(), is(0));
+	}
+
+	@Test
+	public void restoreOptionsOnRelease() {
+		final VPackBuilderPool pool = new VPackBuilderPool(1, 128, 1024);
+		final VPackBuilder builder = pool.acquire();
+		builder.getOptions().setBuildUnindexedArrays(true);
+		builder.getOptions().setBuildUnindexedObjects(true);
+		builder.getOptions().setUsePadding(true);
+		builder.getOptions().setUseFixedIntegerWidth(true);
+		builder.getOptions().setUseNativeBigNumbers(true);
+		pool.release(builder);
+
+		final VPackBuilder reused = pool.acquire();
+		assertThat(reused, sameInstance(builder));
+		final VPackBuilder.BuilderOptions options = reused.getOptions();
+		assertThat(options.isBuildUnindexedArrays(), is(false));
+		assertThat(options.isBuildUnindexedObjects(), is(false));
+		assertThat(options.isUsePadding(), is(false));
+		assertThat(options.isUseFixedIntegerWidth(), is(false));
+		assertThat(options.isUseNativeBigNumbers(), is(false));
+	}
+
+	@Test
+	public void dropBuilderWithForeignOptions() {
+		final VPackBuilderPool pool = new VPackBuilderPool(1, 128, 1024);
+		pool.release(new VPackBuilder(new VPackBuilder.BuilderOptions() {
+			@Override
+			public boolean isBuildUnindexedArrays() {
+				return true;
+			}
+
+			@Override
+			public void setBuildUnindexedArrays(final boolean buildUnindexedArrays) {
+			}
+
+			@Override
+			public boolean isBuildUnindexedObjects() {
+				return true;
+			}
+
+			@Override
+			public void setBuildUnindexedObjects(final boolean buildUnindexedObjects) {
+			}
+		}, 128));
+		assertThat(pool.getIdleCount(), is(0));
+	}
+
+	@Test
+	public void dropOversizedBuilder() {
+		final VPackBuilderPool pool = new VPackBuilderPool(2, 16, 64);
+		final VPackBuilder builder = pool.acquire();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 100; i++) {
+			builder.add("value");
+		}
+		builder.close();
+		pool.release(builder);
+		assertThat(pool.getIdleCount(), is(0));
+		assertThat(pool.acquire(), not(sameInstance(builder)));
+	}
+
+	@Test
+	public void bounded() {
+		final VPackBuilderPool pool = new VPackBuilderPool(2, 16, 64);
+		final VPackBuilder b1 = pool.acquire();
+		final VPackBuilder b2 = pool.acquire();
+		final VPackBuilder b3 = pool.acquire();
+		pool.release(b1);
+		pool.release(b2);
+		pool.release(b3);
+		assertThat(pool.getIdleCount(), is(2));
+	}
+
+	@Test
+	public void concurrentUse() throws Exception {
+		final VPackBuilderPool pool = new VPackBuilderPool(4, 64, 4096);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Boolean>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				final int id = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						final VPackBuilder builder = pool.acquire();
+						builder.add(ValueType.OBJECT).add("id", id).add("i", i).close();
+						final VPackSlice slice = builder.slice();
+						final boolean ok = slice.get("id").getAsInt() == id && slice.get("i").getAsInt() == i;
+						pool.release(builder);
+						if (!ok) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (final Future<Boolean> future : futures) {
+				assertThat(future.get(), is(true));
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		assertThat(pool.getIdleCount() <= 4, is(true));
+	}
+
+}
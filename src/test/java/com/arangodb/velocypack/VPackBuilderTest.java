@@ -21,15 +21,32 @@
 package com.arangodb.velocypack;
 
 import com.arangodb.velocypack.exception.VPackBuilderNeedOpenCompoundException;
+import com.arangodb.velocypack.exception.VPackBuilderNeedOpenObjectException;
 import com.arangodb.velocypack.exception.VPackBuilderNumberOutOfRangeException;
 import com.arangodb.velocypack.exception.VPackBuilderUnexpectedValueException;
 import com.arangodb.velocypack.exception.VPackException;
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
@@ -1015,4 +1032,935 @@ public class VPackBuilderTest {
 		assertThat(s.get("dddddddddddddd").get(2).isObject(), is(true));
 	}
 
+	@Test
+	public void deeplyNestedArraysAndObjects() {
+		final int depth = 50;
+		final VPackBuilder builder = new VPackBuilder();
+		for (int i = 0; i < depth; i++) {
+			builder.add(ValueType.ARRAY);
+			builder.add(i);
+			builder.add(ValueType.OBJECT);
+			builder.add("a", i);
+			builder.add("b", ValueType.ARRAY);
+			builder.close();
+			builder.close();
+		}
+		for (int i = 0; i < depth; i++) {
+			builder.close();
+		}
+
+		VPackSlice slice = builder.slice();
+		for (int i = 0; i < depth; i++) {
+			assertThat(slice.isArray(), is(true));
+			assertThat(slice.getLength(), is(i < depth - 1 ? 3 : 2));
+			assertThat(slice.get(0).getAsInt(), is(i));
+			assertThat(slice.get(1).get("a").getAsInt(), is(i));
+			assertThat(slice.get(1).get("b").getLength(), is(0));
+			if (i < depth - 1) {
+				slice = slice.get(2);
+			}
+		}
+	}
+
+	@Test
+	public void manyMembersInNestedCompounds() {
+		final int size = 1000;
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 3; i++) {
+			builder.add(ValueType.OBJECT);
+			for (int j = 0; j < size; j++) {
+				builder.add("k" + j, j);
+			}
+			builder.close();
+			builder.add(ValueType.ARRAY);
+			for (int j = 0; j < size; j++) {
+				builder.add("v" + j);
+			}
+			builder.close();
+		}
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(6));
+		for (int i = 0; i < 6; i += 2) {
+			final VPackSlice object = slice.get(i);
+			final VPackSlice array = slice.get(i + 1);
+			assertThat(object.getLength(), is(size));
+			assertThat(array.getLength(), is(size));
+			for (int j = 0; j < size; j++) {
+				assertThat(object.get("k" + j).getAsInt(), is(j));
+				assertThat(array.get(j).getAsString(), is("v" + j));
+			}
+		}
+	}
+
+	@Test
+	public void failedAddDoesNotLeaveOffset() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		try {
+			builder.add(100L, ValueType.SMALLINT);
+			fail();
+		} catch (final VPackBuilderNumberOutOfRangeException ignored) {
+
+		}
+		builder.add(2);
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(2));
+		assertThat(slice.get(0).getAsInt(), is(1));
+		assertThat(slice.get(1).getAsInt(), is(2));
+	}
+
+	@Test
+	public void paddedObject() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.getOptions().setUsePadding(true);
+		builder.add(ValueType.OBJECT);
+		builder.add("b", 1);
+		builder.add("a", 2);
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.head(), is((byte) 0x0b));
+		assertThat(slice.getByteSize(), is(9 + 6 + 2));
+		assertThat(slice.getBuffer()[9], is((byte) 0x41));
+		assertThat(slice.getLength(), is(2));
+		assertThat(slice.get("a").getAsInt(), is(2));
+		assertThat(slice.get("b").getAsInt(), is(1));
+		assertThat(slice.keyAt(0).getAsString(), is("a"));
+	}
+
+	@Test
+	public void paddedArray() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.getOptions().setUsePadding(true);
+		builder.add(ValueType.ARRAY);
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		builder.add(2);
+		builder.close();
+		builder.add("a");
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.head(), is((byte) 0x06));
+		assertThat(slice.getLength(), is(2));
+		final VPackSlice inner = slice.get(0);
+		assertThat(inner.head(), is((byte) 0x02));
+		assertThat(inner.getByteSize(), is(11));
+		assertThat(inner.getLength(), is(2));
+		assertThat(inner.get(1).getAsInt(), is(2));
+		assertThat(slice.get(1).getAsString(), is("a"));
+	}
+
+	@Test
+	public void paddingNotUsedBeforeNone() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.getOptions().setUsePadding(true);
+		builder.add(ValueType.ARRAY);
+		builder.add(VPackSlice.NONE_SLICE);
+		builder.add(1);
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.toByteArray(), is(new byte[] { 0x02, 0x04, 0x00, 0x31 }));
+	}
+
+	@Test
+	public void largeNestedArrays() {
+		final int depth = 4;
+		final int width = 300;
+		for (final boolean padding : new boolean[] { false, true }) {
+			final VPackBuilder builder = new VPackBuilder();
+			builder.getOptions().setUsePadding(padding);
+			addNestedArrays(builder, depth, width);
+
+			final VPackSlice slice = builder.slice();
+			VPackSlice current = slice;
+			for (int d = depth; d > 0; d--) {
+				assertThat(current.isArray(), is(true));
+				assertThat(current.getLength(), is(width + 1));
+				assertThat(current.get(width - 1).getAsString(), is("s" + (width - 1)));
+				current = current.get(width);
+			}
+			assertThat(current.getAsInt(), is(0));
+		}
+	}
+
+	private void addNestedArrays(final VPackBuilder builder, final int depth, final int width) {
+		if (depth == 0) {
+			builder.add(0);
+			return;
+		}
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < width; i++) {
+			builder.add("s" + i);
+		}
+		addNestedArrays(builder, depth - 1, width);
+		builder.close();
+	}
+
+	@Test
+	public void reset() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("a", ValueType.ARRAY);
+		builder.add("xyz");
+		builder.reset();
+		assertThat(builder.slice().isNone(), is(true));
+		assertThat(builder.getVpackSize(), is(0));
+
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		builder.add(ValueType.OBJECT);
+		builder.add("b", 2);
+		builder.close();
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.isArray(), is(true));
+		assertThat(slice.getLength(), is(2));
+		assertThat(slice.get(0).getAsInt(), is(1));
+		assertThat(slice.get(1).get("b").getAsInt(), is(2));
+	}
+
+	@Test
+	public void builderOptionsWithoutNewerSettings() {
+		// options implemented against the original interface
+		final VPackBuilder.BuilderOptions options = new VPackBuilder.BuilderOptions() {
+			private boolean unindexedArrays;
+			private boolean unindexedObjects;
+
+			@Override
+			public boolean isBuildUnindexedArrays() {
+				return unindexedArrays;
+			}
+
+			@Override
+			public void setBuildUnindexedArrays(final boolean buildUnindexedArrays) {
+				unindexedArrays = buildUnindexedArrays;
+			}
+
+			@Override
+			public boolean isBuildUnindexedObjects() {
+				return unindexedObjects;
+			}
+
+			@Override
+			public void setBuildUnindexedObjects(final boolean buildUnindexedObjects) {
+				unindexedObjects = buildUnindexedObjects;
+			}
+		};
+		assertThat(options.isUsePadding(), is(false));
+		assertThat(options.isUseFixedIntegerWidth(), is(false));
+		assertThat(options.isUseNativeBigNumbers(), is(false));
+		options.setUseNativeBigNumbers(false);
+		try {
+			options.setUseNativeBigNumbers(true);
+			fail();
+		} catch (final UnsupportedOperationException e) {
+		}
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		builder.add(1000);
+		builder.add(BigInteger.ONE);
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.get(1).getByteSize(), is(3));
+		assertThat(slice.get(2).isString(), is(true));
+	}
+
+	@Test
+	public void resetKeepsBuffer() {
+		final VPackBuilder builder = new VPackBuilder(new DefaultVPackBuilderOptions(), 64);
+		assertThat(builder.getCapacity(), is(64));
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 1000; i++) {
+			builder.add(i);
+		}
+		builder.close();
+		final int capacity = builder.getCapacity();
+		builder.reset();
+		assertThat(builder.getCapacity(), is(capacity));
+	}
+
+	/**
+	 * Runs the given action once to warm up, then asserts that running it again allocates (almost) nothing.
+	 */
+	private static void assertNoAllocation(final Runnable action) {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+		action.run();
+		final long threadId = Thread.currentThread().getId();
+		final long before = threadBean.getThreadAllocatedBytes(threadId);
+		action.run();
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		assertThat(allocated, lessThan(1024L));
+	}
+
+	@Test
+	public void reusedBuilderDoesNotAllocate() {
+		final VPackBuilder builder = new VPackBuilder();
+		assertNoAllocation(() -> {
+			builder.reset();
+			buildNestedArrays(builder);
+		});
+		assertThat(builder.slice().getLength(), is(100));
+	}
+
+	private void buildNestedArrays(final VPackBuilder builder) {
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 100; i++) {
+			builder.add(ValueType.ARRAY);
+			for (int j = 0; j < 100; j++) {
+				builder.add(j % 2 == 0);
+			}
+			builder.close();
+		}
+		builder.close();
+	}
+
+	@Test
+	public void addCharLikeString() {
+		for (final char c : new char[] { 'x', '\u00e4', '\u20ac', '\ud83d' }) {
+			final VPackSlice slice = new VPackBuilder().add(c).slice();
+			assertThat(slice.toByteArray(), is(new VPackBuilder().add(String.valueOf(c)).slice().toByteArray()));
+			assertThat(new VPackBuilder().add(Character.valueOf(c)).slice(), is(slice));
+		}
+	}
+
+	@Test
+	public void reusedBuilderAddsPrimitivesWithoutAllocation() {
+		final VPackKey key = new VPackKey("value");
+		final VPackKey half = new VPackKey("half");
+		final VPackBuilder builder = new VPackBuilder();
+		assertNoAllocation(() -> {
+			builder.reset();
+			builder.add(ValueType.ARRAY);
+			for (int i = 0; i < 1000; i++) {
+				// outside of the Long.valueOf cache, boxing would allocate
+				builder.add(1000L + i);
+				builder.add(1000 + i);
+				builder.add(i * 0.5);
+				builder.add((i & 1) == 0);
+				builder.add('x');
+				builder.add(ValueType.OBJECT);
+				builder.add(key, 1000L + i);
+				builder.add(half, i * 0.5);
+				builder.close();
+			}
+			builder.close();
+		});
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(6000));
+		assertThat(slice.get(5994).getAsLong(), is(1999L));
+		assertThat(slice.get(5999).get("half").getAsDouble(), is(499.5));
+	}
+
+	@Test
+	public void reusedBuilderBuildsNestedObjectsWithoutAllocation() {
+		final VPackKey[] keys = new VPackKey[10];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new VPackKey("k" + i);
+		}
+		final VPackBuilder builder = new VPackBuilder();
+		assertNoAllocation(() -> {
+			builder.reset();
+			buildNestedObjects(builder, keys);
+		});
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(100));
+		assertThat(slice.get(99).get("k9").get("k0").getAsInt(), is(0));
+		assertThat(slice.get(99).get("k9").get("k9").get(2).getAsInt(), is(2));
+	}
+
+	private void buildNestedObjects(final VPackBuilder builder, final VPackKey[] keys) {
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 100; i++) {
+			builder.add(ValueType.OBJECT);
+			for (int j = 0; j < keys.length; j++) {
+				builder.add(keys[j], ValueType.OBJECT);
+				for (int k = 0; k < keys.length - 1; k++) {
+					builder.add(keys[k], k);
+				}
+				builder.add(keys[keys.length - 1], ValueType.ARRAY);
+				for (int k = 0; k < 3; k++) {
+					builder.add(k);
+				}
+				builder.close();
+				builder.close();
+			}
+			builder.close();
+		}
+		builder.close();
+	}
+
+	@Test
+	public void reusedBuilderSortsWithoutAllocation() {
+		final VPackKey[] keys = new VPackKey[30];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new VPackKey("attribute" + (keys.length - i));
+		}
+		final VPackBuilder builder = new VPackBuilder();
+		assertNoAllocation(() -> {
+			builder.reset();
+			buildUnsortedObjects(builder, keys);
+		});
+		assertThat(builder.slice().get(0).keyAt(0).getAsString(), is("attribute1"));
+	}
+
+	private void buildUnsortedObjects(final VPackBuilder builder, final VPackKey[] keys) {
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 100; i++) {
+			builder.add(ValueType.OBJECT);
+			for (int j = 0; j < keys.length; j++) {
+				builder.add(keys[j], j);
+			}
+			builder.close();
+		}
+		builder.close();
+	}
+
+	@Test
+	public void sortObjectKeys() {
+		final List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			keys.add("key" + i);
+			keys.add("sharedPrefix" + i);
+		}
+		keys.add("");
+		keys.add("k");
+		keys.add("\u00e4");
+		keys.add("\u20ac");
+		keys.add("_key");
+		keys.add(repeat("x", 200));
+		for (final int n : new int[] { 2, 5, 16, 17, 30, keys.size() }) {
+			final List<String> members = new ArrayList<>(keys.subList(keys.size() - n, keys.size()));
+			Collections.shuffle(members, new Random(n));
+			final VPackBuilder builder = new VPackBuilder();
+			builder.add(ValueType.OBJECT);
+			for (final String key : members) {
+				builder.add(key, key);
+			}
+			builder.close();
+
+			final VPackSlice slice = builder.slice();
+			assertThat(slice.getLength(), is(n));
+			for (int i = 1; i < n; i++) {
+				final byte[] previous = slice.keyAt(i - 1).makeKey().getAsString().getBytes(StandardCharsets.UTF_8);
+				final byte[] current = slice.keyAt(i).makeKey().getAsString().getBytes(StandardCharsets.UTF_8);
+				assertThat(compareUnsigned(previous, current) < 0, is(true));
+			}
+			for (final String key : members) {
+				assertThat(slice.get(key).getAsString(), is(key));
+			}
+		}
+	}
+
+	@Test
+	public void sortPresortedObjectKeys() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		for (int i = 0; i < 20; i++) {
+			builder.add("a" + (char) ('a' + i), i);
+		}
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		for (int i = 0; i < 20; i++) {
+			assertThat(slice.keyAt(i).getAsString(), is("a" + (char) ('a' + i)));
+			assertThat(slice.get("a" + (char) ('a' + i)).getAsInt(), is(i));
+		}
+	}
+
+	private static int compareUnsigned(final byte[] a, final byte[] b) {
+		for (int i = 0; i < Math.min(a.length, b.length); i++) {
+			final int c = (a[i] & 0xff) - (b[i] & 0xff);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return a.length - b.length;
+	}
+
+	@Test
+	public void addPrimitives() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(true);
+		builder.add(1.5);
+		builder.add(Long.MIN_VALUE);
+		builder.add(-6);
+		builder.add(Integer.MAX_VALUE);
+		builder.add('x');
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(6));
+		assertThat(slice.get(0).getAsBoolean(), is(true));
+		assertThat(slice.get(1).getAsDouble(), is(1.5));
+		assertThat(slice.get(2).getAsLong(), is(Long.MIN_VALUE));
+		assertThat(slice.get(3).isSmallInt(), is(true));
+		assertThat(slice.get(3).getAsInt(), is(-6));
+		assertThat(slice.get(4).isInt(), is(true));
+		assertThat(slice.get(4).getAsInt(), is(Integer.MAX_VALUE));
+		assertThat(slice.get(5).getAsString(), is("x"));
+	}
+
+	@Test
+	public void addPrimitivesWithAttribute() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("bool", false);
+		builder.add("double", -2.25);
+		builder.add("long", 1234567890123L);
+		builder.add("int", 100);
+		builder.add("char", 'y');
+		builder.add("_key", 7);
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(6));
+		assertThat(slice.get("bool").getAsBoolean(), is(false));
+		assertThat(slice.get("double").getAsDouble(), is(-2.25));
+		assertThat(slice.get("long").getAsLong(), is(1234567890123L));
+		assertThat(slice.get("int").getAsInt(), is(100));
+		assertThat(slice.get("char").getAsString(), is("y"));
+		assertThat(slice.get("_key").getAsInt(), is(7));
+	}
+
+	@Test
+	public void addPrimitiveWithNullAttribute() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add((String) null, 5L);
+		builder.close();
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(1));
+		assertThat(slice.get(0).getAsLong(), is(5L));
+	}
+
+	@Test
+	public void addLongArray() {
+		final long[][] arrays = { { 1, 2, 3 }, { -6, 9 }, { 127, -128 }, { 128, 0 }, { Integer.MAX_VALUE, 1 },
+				{ Long.MIN_VALUE, Long.MAX_VALUE, 0 } };
+		final int[] memberSizes = { 1, 1, 2, 3, 5, 9 };
+		for (int i = 0; i < arrays.length; i++) {
+			final VPackSlice slice = new VPackBuilder().add(arrays[i]).slice();
+			assertThat(slice.head(), is((byte) 0x02));
+			assertThat(slice.getByteSize(), is(2 + arrays[i].length * memberSizes[i]));
+			assertThat(slice.getLength(), is(arrays[i].length));
+			for (int j = 0; j < arrays[i].length; j++) {
+				assertThat(slice.get(j).getAsLong(), is(arrays[i][j]));
+			}
+		}
+	}
+
+	@Test
+	public void addLargeNumberArrays() {
+		final int[] ints = new int[10000];
+		final double[] doubles = new double[10000];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = i * (i % 2 == 0 ? 1 : -1);
+			doubles[i] = i / 3.0;
+		}
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("ints", ints);
+		builder.add("doubles", doubles);
+		builder.add("empty", new double[0]);
+		builder.add("null", (long[]) null);
+		builder.close();
+		final VPackSlice slice = builder.slice();
+
+		final VPackSlice intSlice = slice.get("ints");
+		assertThat(intSlice.head(), is((byte) 0x03));
+		assertThat(intSlice.getByteSize(), is(3 + 3 * ints.length));
+		final VPackSlice doubleSlice = slice.get("doubles");
+		assertThat(doubleSlice.head(), is((byte) 0x04));
+		assertThat(doubleSlice.getLength(), is(doubles.length));
+		for (int i = 0; i < ints.length; i++) {
+			assertThat(intSlice.get(i).getAsInt(), is(ints[i]));
+			assertThat(doubleSlice.get(i).getAsDouble(), is(doubles[i]));
+		}
+		assertThat(slice.get("empty").getLength(), is(0));
+		assertThat(slice.get("null").isNull(), is(true));
+	}
+
+	@Test
+	public void addNumberArrayToArray() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(new long[] { 1000, 2000 });
+		builder.add(new int[] { 1 });
+		builder.add(new double[] { 1.5 });
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(3));
+		assertThat(slice.get(0).get(1).getAsLong(), is(2000L));
+		assertThat(slice.get(1).get(0).getAsInt(), is(1));
+		assertThat(slice.get(2).get(0).getAsDouble(), is(1.5));
+	}
+
+	private static class CountingSink extends VPackHeapSink {
+		private int moves;
+		private long bytesMoved;
+
+		CountingSink() {
+			super(16);
+		}
+
+		@Override
+		public void move(final int from, final int to, final int length) {
+			moves++;
+			bytesMoved += length;
+			super.move(from, to, length);
+		}
+	}
+
+	@Test
+	public void closeMovesPayloadOnce() {
+		for (final boolean padding : new boolean[] { false, true }) {
+			final int depth = 100;
+			final CountingSink sink = new CountingSink();
+			final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+			options.setUsePadding(padding);
+			final VPackBuilder builder = new VPackBuilder(options, sink);
+			for (int level = 0; level < depth; level++) {
+				builder.add(ValueType.ARRAY);
+				for (int i = 0; i < 10; i++) {
+					builder.add(1000 + i);
+				}
+			}
+			for (int level = 0; level < depth; level++) {
+				builder.close();
+			}
+			// closing an Array with 1-byte offsets shrinks its reserved header with a single move of its members,
+			// wider Arrays keep their header
+			int shrunk = 0;
+			long memberBytes = 0;
+			VPackSlice array = builder.slice();
+			for (int level = 0; level < depth; level++) {
+				if (array.head() == 0x02 || array.head() == 0x06) {
+					shrunk++;
+					for (int i = 0; i < array.getLength(); i++) {
+						memberBytes += array.get(i).getByteSize();
+					}
+				}
+				if (level < depth - 1) {
+					array = array.get(10);
+				}
+			}
+			assertThat(array.getLength(), is(10));
+			if (padding) {
+				assertThat(sink.moves, is(0));
+				assertThat(sink.bytesMoved, is(0L));
+			} else {
+				assertThat(shrunk > 0, is(true));
+				assertThat(sink.moves, is(shrunk));
+				assertThat(sink.bytesMoved, is(memberBytes));
+			}
+		}
+	}
+
+	private static void assertSizedArray(final int count, final int expectedCount, final int expectedBytes,
+		final int expectedMoves) {
+		final CountingSink sink = new CountingSink();
+		final VPackBuilder builder = new VPackBuilder(new DefaultVPackBuilderOptions(), sink);
+		builder.openObject(2, 2 * expectedBytes);
+		builder.openArray("a", expectedCount, expectedBytes);
+		for (int i = 0; i < count; i++) {
+			builder.add(i % 3 == 0 ? "value" + i : "v");
+		}
+		builder.close();
+		builder.openArray("b", expectedCount, expectedBytes);
+		for (int i = 0; i < count; i++) {
+			builder.add(i);
+		}
+		builder.close();
+		builder.close();
+		assertThat(sink.moves, is(expectedMoves));
+
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.getLength(), is(2));
+		assertThat(slice.keyAt(0).getAsString(), is("a"));
+		final VPackSlice a = slice.get("a");
+		final VPackSlice b = slice.get("b");
+		assertThat(a.getLength(), is(count));
+		assertThat(b.getLength(), is(count));
+		for (int i = 0; i < count; i++) {
+			assertThat(a.get(i).getAsString(), is(i % 3 == 0 ? "value" + i : "v"));
+			assertThat(b.get(i).getAsInt(), is(i));
+		}
+	}
+
+	@Test
+	public void openSizedArray() {
+		// exact estimates
+		assertSizedArray(10, 10, 40, 0);
+		assertSizedArray(1000, 1000, 5000, 0);
+		// estimates too large
+		assertSizedArray(10, 1000, 5000, 0);
+		// estimates too small
+		assertSizedArray(1000, 10, 40, 3);
+	}
+
+	@Test
+	public void openSizedObject() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.openObject(3, 12);
+		builder.add("c", 3);
+		builder.add("a", 1);
+		builder.add("b", 2);
+		builder.close();
+		final VPackBuilder expected = new VPackBuilder();
+		expected.add(ValueType.OBJECT);
+		expected.add("c", 3);
+		expected.add("a", 1);
+		expected.add("b", 2);
+		expected.close();
+		assertThat(builder.getVpackSize(), is(expected.getVpackSize()));
+		for (int i = 0; i < builder.getVpackSize(); i++) {
+			assertThat(builder.slice().getBuffer()[i], is(expected.slice().getBuffer()[i]));
+		}
+		assertThat(builder.slice().keyAt(0).getAsString(), is("a"));
+		assertThat(builder.slice().get("b").getAsInt(), is(2));
+	}
+
+	@Test
+	public void openSizedEmpty() {
+		final VPackSlice slice = new VPackBuilder().openArray(10, 100).close().slice();
+		assertThat(slice.isArray(), is(true));
+		assertThat(slice.getLength(), is(0));
+		assertThat(slice.getByteSize(), is(1));
+	}
+
+	@Test
+	public void openSizedUnindexed() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setBuildUnindexedArrays(true);
+		final VPackSlice slice = new VPackBuilder(options).openArray(2, 2).add(1).add(2).close().slice();
+		assertThat(slice.head(), is((byte) 0x13));
+		assertThat(slice.get(1).getAsInt(), is(2));
+	}
+
+	@Test
+	public void addMinimalWidthIntegers() {
+		final long[] values = { 10, -7, 127, 128, 200, 255, 256, -128, -129, 1000, 40000, 1700000000000L,
+				Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+		final byte[] heads = { 0x20, 0x20, 0x20, 0x28, 0x28, 0x28, 0x21, 0x20, 0x21, 0x21, 0x29, 0x25, 0x23, 0x27,
+				0x27 };
+		for (int i = 0; i < values.length; i++) {
+			final VPackSlice slice = new VPackBuilder().add(values[i]).slice();
+			assertThat(slice.head(), is(heads[i]));
+			assertThat(slice.getAsLong(), is(values[i]));
+			assertThat(slice.getAsBigInteger(), is(BigInteger.valueOf(values[i])));
+		}
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("int", Integer.valueOf(1000));
+		builder.add("short", Short.valueOf((short) -300));
+		builder.add("byte", Byte.valueOf((byte) 100));
+		builder.add("long", Long.valueOf(300));
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.get("int").getByteSize(), is(3));
+		assertThat(slice.get("int").getAsInt(), is(1000));
+		assertThat(slice.get("short").getAsShort(), is((short) -300));
+		assertThat(slice.get("byte").getByteSize(), is(2));
+		assertThat(slice.get("byte").getAsByte(), is((byte) 100));
+		assertThat(slice.get("long").getAsLong(), is(300L));
+	}
+
+	@Test
+	public void addFixedWidthIntegers() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseFixedIntegerWidth(true);
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(1000L);
+		builder.add(1000);
+		builder.add(Short.valueOf((short) 1000));
+		builder.add(5);
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.get(0).head(), is((byte) 0x27));
+		assertThat(slice.get(1).head(), is((byte) 0x23));
+		assertThat(slice.get(2).head(), is((byte) 0x23));
+		assertThat(slice.get(3).head(), is((byte) 0x35));
+		assertThat(slice.get(0).getAsLong(), is(1000L));
+	}
+
+	@Test
+	public void addNativeBigNumbers() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseNativeBigNumbers(true);
+		final String[] decimals = { "123.45", "-0.001", "0", "1E+10", "-98765432109876543210.123456789",
+				repeat("9", 101) + ".5", "12", "-7" };
+		for (final String decimal : decimals) {
+			final VPackSlice slice = new VPackBuilder(options).add(new BigDecimal(decimal)).slice();
+			assertThat(slice.isBCD(), is(true));
+			assertThat(slice.getAsBigDecimal(), is(new BigDecimal(decimal)));
+		}
+		final VPackSlice slice = new VPackBuilder(options).add(new BigDecimal("123.45")).slice();
+		assertThat(slice.getByteSize(), is(9));
+		for (int i = 0; i < 9; i++) {
+			assertThat(slice.getBuffer()[i],
+				is(new byte[] { (byte) 0xc8, 0x03, (byte) 0xfe, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01, 0x23, 0x45 }[i]));
+		}
+		assertThat(slice.getAsDouble(), is(123.45));
+
+		final BigInteger[] integers = { BigInteger.ONE, BigInteger.valueOf(Long.MIN_VALUE),
+				BigInteger.valueOf(Long.MAX_VALUE), BigInteger.ONE.shiftLeft(63), BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE),
+				BigInteger.ONE.shiftLeft(64), BigInteger.ONE.shiftLeft(200).negate() };
+		final ValueType[] types = { ValueType.SMALLINT, ValueType.INT, ValueType.INT, ValueType.UINT, ValueType.UINT,
+				ValueType.BCD, ValueType.BCD };
+		for (int i = 0; i < integers.length; i++) {
+			final VPackSlice integer = new VPackBuilder(options).add(integers[i]).slice();
+			assertThat(integer.getType(), is(types[i]));
+			assertThat(integer.getAsBigInteger(), is(integers[i]));
+			assertThat(integer.getAsBigDecimal().toBigInteger(), is(integers[i]));
+		}
+	}
+
+	@Test
+	public void addBigNumbersAsString() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(new BigDecimal("123.45"));
+		builder.add(BigInteger.ONE.shiftLeft(64));
+		builder.close();
+		assertThat(builder.slice().get(0).isString(), is(true));
+		assertThat(builder.slice().get(0).getAsBigDecimal(), is(new BigDecimal("123.45")));
+		assertThat(builder.slice().get(1).isString(), is(true));
+		assertThat(builder.slice().get(1).getAsBigInteger(), is(BigInteger.ONE.shiftLeft(64)));
+	}
+
+	private static VPackSlice buildElement(final int i) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("id", i);
+		builder.add("name", repeat("n", i % 150));
+		builder.close();
+		return builder.slice();
+	}
+
+	@Test
+	public void addArrayOfSlices() {
+		for (final int n : new int[] { 0, 1, 3, 20, 2000 }) {
+			final List<VPackSlice> elements = IntStream.range(0, n).parallel().mapToObj(VPackBuilderTest::buildElement)
+					.collect(Collectors.toList());
+			for (final boolean unindexed : new boolean[] { false, true }) {
+				final VPackBuilder builder = new VPackBuilder();
+				builder.add(ValueType.OBJECT);
+				builder.addArray("elements", elements, unindexed);
+				builder.close();
+				final VPackSlice array = builder.slice().get("elements");
+				assertThat(array.getLength(), is(n));
+				for (int i = 0; i < n; i++) {
+					assertThat(array.get(i).get("id").getAsInt(), is(i));
+					assertThat(array.get(i).get("name").getAsString(), is(repeat("n", i % 150)));
+				}
+
+				final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+				options.setBuildUnindexedArrays(unindexed);
+				final VPackBuilder expected = new VPackBuilder(options);
+				expected.add(ValueType.ARRAY);
+				for (final VPackSlice element : elements) {
+					expected.add(element);
+				}
+				expected.close();
+				final VPackSlice assembled = new VPackBuilder().addArray(elements, unindexed).slice();
+				assertThat(assembled.getLength(), is(n));
+				if (unindexed || n < 20) {
+					assertThat(Arrays.copyOf(assembled.getBuffer(), assembled.getByteSize()),
+						is(Arrays.copyOf(expected.slice().getBuffer(), expected.slice().getByteSize())));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void addArrayOfEqualSizedSlices() {
+		final List<VPackSlice> elements = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			elements.add(new VPackBuilder().add(1000 + i).slice());
+		}
+		final CountingSink sink = new CountingSink();
+		final VPackSlice slice = new VPackBuilder(new DefaultVPackBuilderOptions(), sink).addArray(elements, false)
+				.slice();
+		assertThat(sink.moves, is(0));
+		assertThat(slice.head(), is((byte) 0x03));
+		assertThat(slice.getLength(), is(100));
+		assertThat(slice.get(99).getAsInt(), is(1099));
+	}
+
+	@Test
+	public void addObjectOfSlices() {
+		final Map<String, VPackSlice> members = new LinkedHashMap<>();
+		for (int i = 0; i < 300; i++) {
+			members.put("key" + (299 - i), buildElement(i));
+		}
+		members.put("_key", new VPackBuilder().add("k").slice());
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = new VPackBuilder().addObject(members, unindexed).slice();
+			assertThat(slice.getLength(), is(301));
+			assertThat(slice.get("key299").get("id").getAsInt(), is(0));
+			assertThat(slice.get("key0").get("id").getAsInt(), is(299));
+			assertThat(slice.get("_key").getAsString(), is("k"));
+			assertThat(slice.head(), is((byte) (unindexed ? 0x14 : 0x0c)));
+		}
+		assertThat(new VPackBuilder().addObject(new LinkedHashMap<String, VPackSlice>(), true).slice().getLength(),
+			is(0));
+	}
+
+	@Test(expected = VPackBuilderNeedOpenObjectException.class)
+	public void addPrimitiveWithAttributeToArray() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add("a", 5L);
+	}
+
+	@Test
+	public void addStringShortLongBoundary() {
+		// 126 and 127 bytes, made of 2-byte characters plus ASCII padding
+		for (final String s : new String[] { repeat("ä", 63), repeat("ä", 63) + "a", repeat("€", 42) + "a" }) {
+			final VPackSlice slice = new VPackBuilder().add(s).slice();
+			final int length = s.getBytes(StandardCharsets.UTF_8).length;
+			assertThat(slice.head(), is(length <= 126 ? (byte) (0x40 + length) : (byte) 0xbf));
+			assertThat(slice.getAsString(), is(s));
+			assertThat(slice.getLength(), is(length));
+		}
+	}
+
+	@Test
+	public void addStringSurrogates() {
+		final String s = "\ud83d\ude00 \ud83d";
+		final VPackSlice slice = new VPackBuilder().add(s).slice();
+		assertThat(slice.getAsString(), is("\ud83d\ude00 ?"));
+	}
+
+	@Test
+	public void addNonASCIIAttribute() {
+		final VPackSlice slice = new VPackBuilder().add(ValueType.OBJECT).add("schlüssel", "wört").close().slice();
+		assertThat(slice.get("schlüssel").getAsString(), is("wört"));
+		assertThat(slice.keyAt(0).getAsString(), is("schlüssel"));
+	}
+
+	private static String repeat(final String s, final int n) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
 }
@@ -0,0 +1,156 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+
+public class VPackByteBufferSinkTest {
+
+	private static void build(final VPackBuilder builder) {
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 50; i++) {
+			builder.add(ValueType.OBJECT);
+			builder.add("name", "document" + i);
+			builder.add("_key", String.valueOf(i));
+			builder.add("value", i * 1000L);
+			builder.add("aä€", "non ASCII ä€");
+			final StringBuilder longKey = new StringBuilder("z");
+			for (int j = 0; j < 130; j++) {
+				longKey.append('k');
+			}
+			builder.add(longKey.toString(), true);
+			builder.add("nested", ValueType.ARRAY, true);
+			for (int j = 0; j < i; j++) {
+				builder.add(j);
+			}
+			builder.close();
+			builder.close();
+		}
+		builder.close();
+	}
+
+	private static byte[] expected() {
+		final VPackBuilder builder = new VPackBuilder();
+		build(builder);
+		final VPackSlice slice = builder.slice();
+		final byte[] result = new byte[slice.getByteSize()];
+		System.arraycopy(slice.getBuffer(), 0, result, 0, result.length);
+		return result;
+	}
+
+	private static byte[] toArray(final ByteBuffer buffer) {
+		final byte[] result = new byte[buffer.remaining()];
+		buffer.get(result);
+		return result;
+	}
+
+	@Test
+	public void growingDirectBuffer() {
+		final List<ByteBuffer> released = new ArrayList<>();
+		final VPackByteBufferSink sink = new VPackByteBufferSink(new VPackByteBufferSink.Allocator() {
+			@Override
+			public ByteBuffer allocate(final int capacity) {
+				return ByteBuffer.allocateDirect(capacity);
+			}
+
+			@Override
+			public void release(final ByteBuffer buffer) {
+				released.add(buffer);
+			}
+		}, 16);
+		final VPackBuilder builder = new VPackBuilder(new DefaultVPackBuilderOptions(), sink);
+		build(builder);
+
+		final byte[] expected = expected();
+		assertThat(builder.getVpackSize(), is(expected.length));
+		assertThat(toArray(sink.toByteBuffer(builder.getVpackSize())), is(expected));
+		assertThat(builder.slice().get(3).get("name").getAsString(), is("document3"));
+		assertThat(released.isEmpty(), is(false));
+
+		sink.release();
+		assertThat(released.size() > 1, is(true));
+	}
+
+	@Test
+	public void callerSuppliedBuffer() {
+		final byte[] expected = expected();
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 10);
+		((Buffer) buffer).position(10);
+		final VPackByteBufferSink sink = new VPackByteBufferSink(buffer);
+		final VPackBuilder builder = new VPackBuilder(new DefaultVPackBuilderOptions(), sink);
+		build(builder);
+
+		assertThat(buffer.position(), is(10));
+		assertThat(toArray(buffer), is(expected));
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void callerSuppliedBufferTooSmall() {
+		final VPackBuilder builder = new VPackBuilder(new DefaultVPackBuilderOptions(),
+				new VPackByteBufferSink(ByteBuffer.allocate(100)));
+		build(builder);
+	}
+
+	@Test
+	public void paddingAndReset() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUsePadding(true);
+		final VPackBuilder heap = new VPackBuilder(options);
+		final VPackByteBufferSink sink = new VPackByteBufferSink(VPackByteBufferSink.DIRECT, 1);
+		final VPackBuilder direct = new VPackBuilder(options, sink);
+		build(direct);
+		direct.reset();
+		assertThat(direct.slice().isNone(), is(true));
+		build(heap);
+		build(direct);
+		final byte[] expected = new byte[heap.getVpackSize()];
+		System.arraycopy(heap.slice().getBuffer(), 0, expected, 0, expected.length);
+		assertThat(toArray(sink.toByteBuffer(direct.getVpackSize())), is(expected));
+	}
+
+	@Test
+	public void move() {
+		final VPackByteBufferSink sink = new VPackByteBufferSink(ByteBuffer.allocate(1000));
+		for (int i = 0; i < 1000; i++) {
+			sink.put(i, (byte) i);
+		}
+		sink.move(10, 300, 600);
+		for (int i = 0; i < 600; i++) {
+			assertThat(sink.get(300 + i), is((byte) (10 + i)));
+		}
+		sink.move(300, 0, 600);
+		for (int i = 0; i < 600; i++) {
+			assertThat(sink.get(i), is((byte) (10 + i)));
+		}
+	}
+
+}
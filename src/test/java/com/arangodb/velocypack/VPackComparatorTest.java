@@ -0,0 +1,328 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+
+public class VPackComparatorTest {
+
+	private static List<VPackSlice> members(final VPackSlice array) {
+		final List<VPackSlice> members = new ArrayList<VPackSlice>();
+		for (int i = 0; i < array.getLength(); i++) {
+			members.add(array.get(i));
+		}
+		return members;
+	}
+
+	private static void assertOrdered(final List<VPackSlice> values) {
+		for (int i = 1; i < values.size(); i++) {
+			final VPackSlice a = values.get(i - 1);
+			final VPackSlice b = values.get(i);
+			assertThat("value " + i, VPackComparator.INSTANCE.compare(a, b), is(lessThan(0)));
+			assertThat("value " + i, VPackComparator.INSTANCE.compare(b, a), is(greaterThan(0)));
+			assertThat(a.semanticEquals(b), is(false));
+		}
+	}
+
+	private static void assertEqual(final VPackSlice a, final VPackSlice b) {
+		assertThat(VPackComparator.INSTANCE.compare(a, b), is(0));
+		assertThat(VPackComparator.INSTANCE.compare(b, a), is(0));
+		assertThat(a.semanticEquals(b), is(true));
+		assertThat(a.normalizedHash(), is(b.normalizedHash()));
+	}
+
+	@Test
+	public void typeOrder() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(new VPackSlice(new byte[] { 0x1e }));
+		builder.add(ValueType.NULL);
+		builder.add(false);
+		builder.add(true);
+		builder.add(-1);
+		builder.add(new Date(0));
+		builder.add("");
+		builder.add(ValueType.ARRAY);
+		builder.close();
+		builder.add(ValueType.OBJECT);
+		builder.close();
+		builder.add(new byte[] { 1 });
+		builder.add(new VPackSlice(new byte[] { 0x1f }));
+		builder.close();
+		assertOrdered(members(builder.slice()));
+	}
+
+	@Test
+	public void numbers() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseNativeBigNumbers(true);
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(Double.NEGATIVE_INFINITY);
+		builder.add(-1e300);
+		builder.add(Long.MIN_VALUE);
+		builder.add(-1.5);
+		builder.add(-1);
+		builder.add(0);
+		builder.add(0.25);
+		builder.add(new BigDecimal("0.5"));
+		builder.add(1);
+		builder.add(9007199254740992L);
+		builder.add(9007199254740993L);
+		builder.add(9007199254740994.0);
+		builder.add(Long.MAX_VALUE);
+		builder.add(0x1p63);
+		builder.add(new BigInteger("9223372036854777856"), ValueType.UINT);
+		builder.add(new BigInteger("18446744073709551615"), ValueType.UINT);
+		builder.add(new BigDecimal("18446744073709551615.5"));
+		builder.add(0x1p64);
+		builder.add(Double.POSITIVE_INFINITY);
+		builder.add(Double.NaN);
+		builder.close();
+		assertOrdered(members(builder.slice()));
+	}
+
+	@Test
+	public void equalNumbers() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseFixedIntegerWidth(true);
+		options.setUseNativeBigNumbers(true);
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(1L);
+		builder.add(1);
+		builder.add(1.0);
+		builder.add(new BigDecimal("1.00"));
+		builder.add(0x1p63);
+		builder.add(new BigInteger("9223372036854775808"), ValueType.UINT);
+		builder.add(-0.0);
+		builder.add(0);
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		final VPackSlice one = new VPackSlice(new byte[] { 0x31 });
+		for (int i = 0; i < 4; i++) {
+			assertEqual(slice.get(i), one);
+		}
+		assertEqual(slice.get(4), slice.get(5));
+		assertEqual(slice.get(6), slice.get(7));
+		// NaN with different payloads
+		assertEqual(new VPackSlice(new byte[] { 0x1b, 0, 0, 0, 0, 0, 0, (byte) 0xf8, 0x7f }),
+			new VPackSlice(new byte[] { 0x1b, 1, 0, 0, 0, 0, 0, (byte) 0xf8, 0x7f }));
+	}
+
+	@Test
+	public void strings() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add("");
+		builder.add("B");
+		builder.add("a");
+		builder.add("ab");
+		builder.add("b");
+		builder.add("ä");
+		builder.add("😀");
+		builder.close();
+		assertOrdered(members(builder.slice()));
+		final VPackSlice longString = new VPackSlice(
+				new byte[] { (byte) 0xbf, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x61 });
+		assertEqual(longString, builder.slice().get(2));
+	}
+
+	@Test
+	public void arrays() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(ValueType.ARRAY);
+		builder.close();
+		builder.add(ValueType.ARRAY);
+		builder.add(ValueType.NULL);
+		builder.close();
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		builder.add(2);
+		builder.close();
+		builder.add(ValueType.ARRAY);
+		builder.add(1);
+		builder.add(2);
+		builder.add(0);
+		builder.close();
+		builder.add(ValueType.ARRAY);
+		builder.add(2);
+		builder.close();
+		builder.close();
+		assertOrdered(members(builder.slice()));
+
+		final VPackBuilder compact = new VPackBuilder();
+		compact.add(ValueType.ARRAY, true);
+		compact.add(1.0);
+		compact.add(2);
+		compact.close();
+		assertEqual(compact.slice(), builder.slice().get(2));
+	}
+
+	private static VPackSlice object(final boolean unindexed, final Object... members) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT, unindexed);
+		for (int i = 0; i < members.length; i += 2) {
+			final String key = (String) members[i];
+			final Object value = members[i + 1];
+			if (value == null) {
+				builder.add(key, ValueType.NULL);
+			} else if (value instanceof String) {
+				builder.add(key, (String) value);
+			} else {
+				builder.add(key, (Integer) value);
+			}
+		}
+		builder.close();
+		return builder.slice();
+	}
+
+	@Test
+	public void objects() {
+		final List<VPackSlice> values = new ArrayList<VPackSlice>();
+		values.add(object(false));
+		// the missing member "a" counts as null, which is less than 1
+		values.add(object(false, "b", 1));
+		values.add(object(false, "a", 1));
+		values.add(object(false, "a", 1, "b", 1));
+		values.add(object(false, "a", 1, "b", 2));
+		values.add(object(false, "a", 2));
+		values.add(object(false, "a", "x"));
+		assertOrdered(values);
+
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = object(unindexed, "c", 3, "b", 2, "a", 1, "d", null);
+			assertEqual(slice, object(false, "a", 1, "b", 2, "c", 3));
+			assertEqual(slice, object(true, "a", 1, "c", 3, "b", 2));
+			assertEqual(slice, object(true, "a", 1, "d", null, "c", 3, "b", 2));
+		}
+		assertOrdered(Arrays.asList(object(true, "b", 1, "a", 1), object(true, "b", 1, "a", 1, "c", 0)));
+	}
+
+	/**
+	 * Objects of 100 members nested 10 levels deep, the last member holding the next level. Compact Objects get their
+	 * keys in descending order, so each level has to sort them.
+	 */
+	private static VPackSlice nestedObjects(final boolean unindexed, final int leaf) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT, unindexed);
+		addNestedMembers(builder, unindexed, 10, leaf);
+		builder.close();
+		return builder.slice();
+	}
+
+	private static void addNestedMembers(
+		final VPackBuilder builder,
+		final boolean unindexed,
+		final int depth,
+		final int leaf) {
+		for (int i = 0; i < 99; i++) {
+			final int key = unindexed ? 99 - i : i + 1;
+			builder.add("key" + (1000 + key), key);
+		}
+		if (depth > 1) {
+			builder.add("key1000", ValueType.OBJECT, unindexed);
+			addNestedMembers(builder, unindexed, depth - 1, leaf);
+			builder.close();
+		} else {
+			builder.add("key1000", leaf);
+		}
+	}
+
+	@Test
+	public void nestedObjects() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			assertEqual(nestedObjects(unindexed, 1), nestedObjects(!unindexed, 1));
+			assertOrdered(Arrays.asList(nestedObjects(unindexed, 1), nestedObjects(!unindexed, 2)));
+		}
+	}
+
+	@Test
+	public void compareObjectsWithoutAllocation() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+		final VPackSlice compact = nestedObjects(true, 1);
+		final VPackSlice other = nestedObjects(true, 2);
+		// grows the key buffer of this thread
+		VPackComparator.INSTANCE.compare(compact, other);
+
+		final long threadId = Thread.currentThread().getId();
+		final long before = threadBean.getThreadAllocatedBytes(threadId);
+		final int c = VPackComparator.INSTANCE.compare(compact, other);
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		assertThat(allocated, lessThan(1024L));
+		assertThat(c, lessThan(0));
+	}
+
+	@Test
+	public void translatedKeys() {
+		// {1:"a"}
+		final VPackSlice translated = new VPackSlice(new byte[] { 0x0b, 0x06, 0x01, 0x31, 0x41, 0x61 });
+		assertEqual(translated, object(false, "_key", "a"));
+		assertEqual(translated, object(true, "_key", "a", "x", null));
+		// the first key of the union decides, its missing member counts as null
+		assertOrdered(Arrays.asList(object(false, "_kez", "a"), translated, object(false, "_id", "a")));
+	}
+
+	@Test
+	public void sort() {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add("b");
+		builder.add(3);
+		builder.add(ValueType.NULL);
+		builder.add(1.5);
+		builder.add("a");
+		builder.add(true);
+		builder.close();
+		final List<VPackSlice> values = members(builder.slice());
+		Collections.sort(values, VPackComparator.INSTANCE);
+		assertThat(values.get(0).isNull(), is(true));
+		assertThat(values.get(1).getAsBoolean(), is(true));
+		assertThat(values.get(2).getAsDouble(), is(1.5));
+		assertThat(values.get(3).getAsInt(), is(3));
+		assertThat(values.get(4).getAsString(), is("a"));
+		assertThat(values.get(5).getAsString(), is("b"));
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.arangodb.velocypack.exception.VPackValueTypeException;
+
+public class VPackCursorTest {
+
+	private static final VPackKey A = new VPackKey("a");
+	private static final VPackKey B = new VPackKey("b");
+	private static final VPackKey C = new VPackKey("c");
+	private static final VPackKey KEY = new VPackKey("_key");
+	private static final VPackKey MISSING = new VPackKey("missing");
+
+	private static VPackSlice document(final boolean unindexed) {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT, unindexed);
+		builder.add("c", "ccc");
+		builder.add(KEY, "k");
+		builder.add(A, 1L);
+		builder.add("b", ValueType.ARRAY, unindexed);
+		builder.add(1);
+		builder.add(2.5);
+		builder.add(1000000L);
+		builder.add(-3);
+		builder.close();
+		builder.close();
+		return builder.slice();
+	}
+
+	@Test
+	public void navigateObject() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = document(unindexed);
+			final VPackCursor cursor = new VPackCursor(slice);
+			assertThat(cursor.isObject(), is(true));
+			assertThat(cursor.getLength(), is(4));
+
+			assertThat(cursor.first(), is(true));
+			assertThat(cursor.getDepth(), is(1));
+			assertThat(cursor.getKeyAsString(), is("c"));
+			assertThat(cursor.getAsString(), is("ccc"));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.isKey(KEY), is(true));
+			assertThat(cursor.getAsString(), is("k"));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.isKey(A), is(true));
+			assertThat(cursor.getAsLong(), is(1L));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.getKeyAsString(), is("b"));
+			assertThat(cursor.isArray(), is(true));
+			assertThat(cursor.next(), is(false));
+			assertThat(cursor.getKeyAsString(), is("b"));
+
+			assertThat(cursor.up(), is(true));
+			assertThat(cursor.getPosition(), is(slice.getStart()));
+			assertThat(cursor.up(), is(false));
+		}
+	}
+
+	@Test
+	public void navigateArray() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackCursor cursor = new VPackCursor(document(unindexed));
+			assertThat(cursor.get(B), is(true));
+			assertThat(cursor.getLength(), is(4));
+			assertThat(cursor.first(), is(true));
+			assertThat(cursor.getAsInt(), is(1));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.getAsDouble(), is(2.5));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.getAsLong(), is(1000000L));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.getAsLong(), is(-3L));
+			assertThat(cursor.next(), is(false));
+			assertThat(cursor.getDepth(), is(2));
+
+			cursor.up();
+			cursor.child(1);
+			assertThat(cursor.getAsDouble(), is(2.5));
+			cursor.up();
+			assertThat(cursor.isArray(), is(true));
+			cursor.up();
+			assertThat(cursor.isObject(), is(true));
+			assertThat(cursor.getDepth(), is(0));
+		}
+	}
+
+	@Test
+	public void navigateEqualSizedArray() {
+		final VPackSlice slice = new VPackBuilder().add(new long[] { 5, 6, 7 }).slice();
+		final VPackCursor cursor = new VPackCursor(slice);
+		assertThat(cursor.first(), is(true));
+		long sum = 0;
+		do {
+			sum += cursor.getAsLong();
+		} while (cursor.next());
+		assertThat(sum, is(18L));
+	}
+
+	@Test
+	public void getAttribute() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackCursor cursor = new VPackCursor(document(unindexed));
+			assertThat(cursor.get(MISSING), is(false));
+			assertThat(cursor.getDepth(), is(0));
+			assertThat(cursor.get(KEY), is(true));
+			assertThat(cursor.getAsString(), is("k"));
+			assertThat(cursor.getKeyAsString(), is("_key"));
+			cursor.up();
+			assertThat(cursor.get(A), is(true));
+			assertThat(cursor.isKey(A), is(true));
+			assertThat(cursor.next(), is(true));
+			assertThat(cursor.isKey(B), is(true));
+			cursor.up();
+			assertThat(cursor.get(C), is(true));
+			assertThat(cursor.getAsString(), is("ccc"));
+		}
+	}
+
+	@Test
+	public void childMatchesSlice() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = document(unindexed);
+			final VPackCursor cursor = new VPackCursor();
+			for (int i = 0; i < slice.getLength(); i++) {
+				cursor.reset(slice).child(i);
+				assertThat(cursor.getKeyAsString(), is(slice.keyAt(i).makeKey().getAsString()));
+				assertThat(cursor.toSlice(), is(slice.valueAt(i)));
+			}
+		}
+	}
+
+	@Test
+	public void emptyContainers() {
+		final VPackCursor cursor = new VPackCursor(new VPackBuilder().add(ValueType.ARRAY).close().slice());
+		assertThat(cursor.first(), is(false));
+		assertThat(cursor.getLength(), is(0));
+		cursor.reset(new VPackBuilder().add(ValueType.OBJECT).close().slice());
+		assertThat(cursor.first(), is(false));
+		assertThat(cursor.get(A), is(false));
+		assertThat(cursor.next(), is(false));
+	}
+
+	@Test(expected = VPackValueTypeException.class)
+	public void firstOfScalar() {
+		new VPackCursor(new VPackBuilder().add(1).slice()).first();
+	}
+
+	@Test(expected = VPackValueTypeException.class)
+	public void keyOfArrayMember() {
+		final VPackCursor cursor = new VPackCursor(new VPackBuilder().add(new int[] { 1 }).slice());
+		cursor.first();
+		cursor.getKeyAsString();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void childOutOfBounds() {
+		new VPackCursor(new VPackBuilder().add(new int[] { 1 }).slice()).child(1);
+	}
+
+	@Test
+	public void deepNesting() {
+		final VPackBuilder builder = new VPackBuilder();
+		for (int i = 0; i < 20; i++) {
+			builder.add(ValueType.ARRAY);
+		}
+		builder.add("deep");
+		for (int i = 0; i < 20; i++) {
+			builder.close();
+		}
+		final VPackCursor cursor = new VPackCursor(builder.slice());
+		while (cursor.isArray()) {
+			cursor.first();
+		}
+		assertThat(cursor.getDepth(), is(20));
+		assertThat(cursor.getAsString(), is("deep"));
+		while (cursor.up()) {
+		}
+		assertThat(cursor.getPosition(), is(0));
+	}
+
+	@Test
+	public void longString() {
+		final String value = new String(new char[300]).replace('\0', 'x');
+		final VPackCursor cursor = new VPackCursor(new VPackBuilder().add(value).slice());
+		assertThat(cursor.getLength(), is(300));
+		assertThat(cursor.getAsString(), is(value));
+	}
+
+	@Test
+	public void navigateWithoutAllocation() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		for (int i = 0; i < 1000; i++) {
+			builder.add(ValueType.OBJECT);
+			builder.add(A, i);
+			builder.add(B, 1.5);
+			builder.close();
+		}
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		final VPackCursor cursor = new VPackCursor();
+		sum(cursor.reset(slice));
+
+		final long threadId = Thread.currentThread().getId();
+		final long before = threadBean.getThreadAllocatedBytes(threadId);
+		final double sum = sum(cursor.reset(slice));
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		assertThat(allocated < 1024, is(true));
+		assertThat(sum, is(499500.0 + 1500.0));
+	}
+
+	private static double sum(final VPackCursor cursor) {
+		double sum = 0;
+		if (cursor.first()) {
+			do {
+				cursor.get(A);
+				sum += cursor.getAsLong();
+				cursor.next();
+				sum += cursor.getAsDouble();
+				cursor.up();
+			} while (cursor.next());
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class VPackKeyTest {
+
+	private static final VPackKey A = new VPackKey("a");
+	private static final VPackKey B = new VPackKey("b");
+	private static final VPackKey KEY = new VPackKey("_key");
+	private static final VPackKey MISSING = new VPackKey("missing");
+
+	@Test
+	public void equalsAndHashCode() {
+		assertThat(new VPackKey("a").equals(A), is(true));
+		assertThat(new VPackKey("a").hashCode(), is(A.hashCode()));
+		assertThat(A.equals(B), is(false));
+		assertThat(A.getAttribute(), is("a"));
+	}
+
+	@Test
+	public void buildAndGet() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackBuilder builder = new VPackBuilder();
+			builder.add(ValueType.OBJECT, unindexed);
+			builder.add(B, "b");
+			builder.add(KEY, "k");
+			builder.add(A, 1L);
+			for (int i = 0; i < 10; i++) {
+				builder.add(new VPackKey("attr" + i), i);
+			}
+			builder.close();
+
+			final VPackSlice slice = builder.slice();
+			assertThat(slice.getLength(), is(13));
+			assertThat(slice.get(A).getAsLong(), is(1L));
+			assertThat(slice.get(B).getAsString(), is("b"));
+			assertThat(slice.get(KEY).getAsString(), is("k"));
+			assertThat(slice.get("_key").getAsString(), is("k"));
+			assertThat(slice.get(MISSING).isNone(), is(true));
+			for (int i = 0; i < 10; i++) {
+				assertThat(slice.get(new VPackKey("attr" + i)).getAsInt(), is(i));
+			}
+		}
+	}
+
+	@Test
+	public void getFromSmallObjects() {
+		final VPackSlice single = new VPackBuilder().add(ValueType.OBJECT).add(A, true).close().slice();
+		assertThat(single.get(A).isTrue(), is(true));
+		assertThat(single.get(B).isNone(), is(true));
+
+		final VPackSlice translatedSingle = new VPackBuilder().add(ValueType.OBJECT).add("_key", 5).close().slice();
+		assertThat(translatedSingle.get(KEY).getAsInt(), is(5));
+		assertThat(translatedSingle.get(A).isNone(), is(true));
+
+		final VPackSlice pair = new VPackBuilder().add(ValueType.OBJECT).add("a", 1).add("_key", "x").close().slice();
+		assertThat(pair.get(A).getAsInt(), is(1));
+		assertThat(pair.get(KEY).getAsString(), is("x"));
+
+		final VPackSlice empty = new VPackBuilder().add(ValueType.OBJECT).close().slice();
+		assertThat(empty.get(A).isNone(), is(true));
+		assertThat(empty.get((VPackKey) null).isNone(), is(true));
+	}
+
+	@Test
+	public void longKey() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			sb.append('k');
+		}
+		final VPackKey key = new VPackKey(sb.toString());
+		final VPackSlice slice = new VPackBuilder().add(ValueType.OBJECT).add(key, "v").add(A, "w").close().slice();
+		assertThat(slice.get(key).getAsString(), is("v"));
+		assertThat(slice.get(sb.toString()).getAsString(), is("v"));
+		assertThat(slice.keyAt(1).getAsString(), is(sb.toString()));
+	}
+
+	@Test
+	public void getSeveral() {
+		for (final int size : new int[] { 3, 100 }) {
+			for (final boolean unindexed : new boolean[] { false, true }) {
+				final VPackBuilder builder = new VPackBuilder();
+				builder.add(ValueType.OBJECT, unindexed);
+				builder.add(KEY, "k");
+				for (int i = 0; i < size; i++) {
+					builder.add(new VPackKey("attr" + i), i);
+				}
+				builder.close();
+				final VPackSlice slice = builder.slice();
+
+				final VPackKey last = new VPackKey("attr" + (size - 1));
+				final VPackKey[] keys = { last, null, KEY, MISSING, last, new VPackKey("attr1") };
+				final VPackSlice[] values = new VPackSlice[keys.length];
+				assertThat(slice.get(keys, values), is(4));
+				assertThat(values[0].getAsInt(), is(size - 1));
+				assertThat(values[1].isNone(), is(true));
+				assertThat(values[2].getAsString(), is("k"));
+				assertThat(values[3].isNone(), is(true));
+				assertThat(values[4].getAsInt(), is(size - 1));
+				assertThat(values[5].getAsInt(), is(1));
+
+				final VPackSlice[] byName = slice.get("_key", "attr0", "missing");
+				assertThat(byName.length, is(3));
+				assertThat(byName[0].getAsString(), is("k"));
+				assertThat(byName[1].getAsInt(), is(0));
+				assertThat(byName[2].isNone(), is(true));
+			}
+		}
+		final VPackSlice[] values = new VPackSlice[1];
+		assertThat(new VPackBuilder().add(ValueType.OBJECT).close().slice().get(new VPackKey[] { A }, values), is(0));
+		assertThat(values[0].isNone(), is(true));
+	}
+
+}
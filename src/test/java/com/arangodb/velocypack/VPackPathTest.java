@@ -0,0 +1,136 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class VPackPathTest {
+
+	private static VPackSlice document(final boolean unindexed) {
+		// {"_key":"k","a":{"b":[{"c":1},{"c":2,"d/e":true},{"x":3}],"7":"seven"},"list":[[1,2],[3]]}
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT, unindexed);
+		builder.add("_key", "k");
+		builder.add("a", ValueType.OBJECT, unindexed);
+		builder.add("b", ValueType.ARRAY, unindexed);
+		builder.add(ValueType.OBJECT, unindexed).add("c", 1).close();
+		builder.add(ValueType.OBJECT, unindexed).add("c", 2).add("d/e", true).close();
+		builder.add(ValueType.OBJECT, unindexed).add("x", 3).close();
+		builder.close();
+		builder.add("7", "seven");
+		builder.close();
+		builder.add("list", ValueType.ARRAY, unindexed);
+		builder.add(new int[] { 1, 2 });
+		builder.add(new int[] { 3 });
+		builder.close();
+		builder.close();
+		return builder.slice();
+	}
+
+	@Test
+	public void dotted() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = document(unindexed);
+			assertThat(VPackPath.compile("_key").get(slice).getAsString(), is("k"));
+			assertThat(VPackPath.compile("a.b[1].c").get(slice).getAsInt(), is(2));
+			assertThat(VPackPath.compile("a.b.1.c").get(slice).getAsInt(), is(2));
+			assertThat(VPackPath.compile("a.7").get(slice).getAsString(), is("seven"));
+			assertThat(VPackPath.compile("list[1][0]").get(slice).getAsInt(), is(3));
+			assertThat(VPackPath.compile("").get(slice), is(slice));
+		}
+	}
+
+	@Test
+	public void jsonPointer() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = document(unindexed);
+			assertThat(VPackPath.compile("/a/b/0/c").get(slice).getAsInt(), is(1));
+			assertThat(VPackPath.compile("/a/b/1/d~1e").get(slice).isTrue(), is(true));
+			assertThat(VPackPath.compile("/a/7").get(slice).getAsString(), is("seven"));
+		}
+	}
+
+	@Test
+	public void miss() {
+		final VPackSlice slice = document(false);
+		assertThat(VPackPath.compile("a.b[3].c").get(slice) == VPackSlice.NONE_SLICE, is(true));
+		assertThat(VPackPath.compile("a.missing.c").get(slice).isNone(), is(true));
+		assertThat(VPackPath.compile("a.b.c").get(slice).isNone(), is(true));
+		assertThat(VPackPath.compile("_key.x").get(slice).isNone(), is(true));
+		assertThat(VPackPath.compile("a[0]").get(slice).isNone(), is(true));
+		assertThat(VPackPath.compile("a.b[2].c").get(slice).isNone(), is(true));
+	}
+
+	@Test
+	public void wildcard() {
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackSlice slice = document(unindexed);
+			final VPackPath path = VPackPath.compile("a.b[*].c");
+			assertThat(path.isWildcard(), is(true));
+			final List<VPackSlice> values = path.getAll(slice);
+			assertThat(values.size(), is(2));
+			assertThat(values.get(0).getAsInt(), is(1));
+			assertThat(values.get(1).getAsInt(), is(2));
+			assertThat(path.get(slice).getAsInt(), is(1));
+			assertThat(VPackPath.compile("a.b.*.x").get(slice).getAsInt(), is(3));
+
+			final List<VPackSlice> nested = VPackPath.compile("/list/*/*").getAll(slice);
+			assertThat(nested.size(), is(3));
+			assertThat(nested.get(2).getAsInt(), is(3));
+			assertThat(VPackPath.compile("a.b[*].missing").getAll(slice).isEmpty(), is(true));
+		}
+	}
+
+	@Test
+	public void getAllWithoutWildcard() {
+		final VPackSlice slice = document(false);
+		assertThat(VPackPath.compile("_key").getAll(slice).size(), is(1));
+		assertThat(VPackPath.compile("missing").getAll(slice).isEmpty(), is(true));
+	}
+
+	@Test
+	public void equalsAndToString() {
+		assertThat(VPackPath.compile("a.b").equals(VPackPath.compile("a.b")), is(true));
+		assertThat(VPackPath.compile("a.b").toString(), is("a.b"));
+		assertThat(VPackPath.compile("a.b").isWildcard(), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyAttributeName() {
+		VPackPath.compile("a..b");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unbalancedBrackets() {
+		VPackPath.compile("a[1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noIndexInBrackets() {
+		VPackPath.compile("a[x]");
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
+
+public class VPackSegmentedSinkTest {
+
+	private static void build(final VPackBuilder builder) {
+		builder.add(ValueType.OBJECT);
+		for (int i = 0; i < 300; i++) {
+			builder.add("attribute" + (299 - i), ValueType.ARRAY);
+			for (int j = 0; j < i % 20; j++) {
+				builder.add("value " + j);
+			}
+			builder.close();
+		}
+		builder.add("_key", "key");
+		builder.add("compact", ValueType.OBJECT, true);
+		builder.add("a", 1);
+		builder.close();
+		builder.close();
+	}
+
+	private static byte[] expected(final DefaultVPackBuilderOptions options) {
+		final VPackBuilder builder = new VPackBuilder(options);
+		build(builder);
+		final byte[] result = new byte[builder.getVpackSize()];
+		System.arraycopy(builder.slice().getBuffer(), 0, result, 0, result.length);
+		return result;
+	}
+
+	@Test
+	public void sameBytesAsHeap() {
+		for (final boolean padding : new boolean[] { false, true }) {
+			final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+			options.setUsePadding(padding);
+			for (final int chunkSize : new int[] { 8, 64, 1024, VPackSegmentedSink.DEFAULT_CHUNK_SIZE }) {
+				final VPackSegmentedSink sink = new VPackSegmentedSink(chunkSize);
+				final VPackBuilder builder = new VPackBuilder(options, sink);
+				build(builder);
+				final byte[] expected = expected(options);
+				assertThat(sink.toByteArray(builder.getVpackSize()), is(expected));
+				assertThat(builder.slice().get("attribute5").getLength(), is(14));
+				assertThat(builder.slice().get("_key").getAsString(), is("key"));
+
+				final List<ByteBuffer> buffers = sink.toByteBuffers(builder.getVpackSize());
+				final ByteBuffer gathered = ByteBuffer.allocate(expected.length);
+				for (final ByteBuffer buffer : buffers) {
+					assertThat(buffer.remaining() <= chunkSize, is(true));
+					gathered.put(buffer);
+				}
+				assertThat(gathered.array(), is(expected));
+			}
+		}
+	}
+
+	@Test
+	public void move() {
+		final VPackSegmentedSink sink = new VPackSegmentedSink(16);
+		sink.ensureCapacity(200);
+		for (int i = 0; i < 200; i++) {
+			sink.put(i, (byte) i);
+		}
+		sink.move(3, 50, 140);
+		for (int i = 0; i < 140; i++) {
+			assertThat(sink.get(50 + i), is((byte) (3 + i)));
+		}
+		sink.move(50, 7, 140);
+		for (int i = 0; i < 140; i++) {
+			assertThat(sink.get(7 + i), is((byte) (3 + i)));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void chunkSizeNoPowerOfTwo() {
+		new VPackSegmentedSink(1000);
+	}
+
+}
@@ -22,6 +22,7 @@ package com.arangodb.velocypack;
 
 import com.arangodb.velocypack.exception.VPackException;
 import com.arangodb.velocypack.exception.VPackValueTypeException;
+import com.arangodb.velocypack.internal.DefaultVPackBuilderOptions;
 import org.junit.Test;
 
 import java.math.BigInteger;
@@ -33,6 +34,8 @@ import java.util.Map.Entry;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.*;
 
 /**
@@ -972,6 +975,266 @@ public class VPackSliceTest {
 		assertThat(sliceA.isString(), is(true));
 	}
 
+	@Test
+	public void objectGetComparesEncodedKeys() throws VPackException {
+		final String longKey = new String(new char[200]).replace('\0', 'k');
+		for (final boolean unindexed : new boolean[] { false, true }) {
+			final VPackBuilder builder = new VPackBuilder();
+			builder.add(ValueType.OBJECT, unindexed);
+			builder.add("ab", 1);
+			builder.add("a", 2);
+			builder.add("ä€", 3);
+			builder.add("_key", 4);
+			builder.add(longKey, 5);
+			builder.close();
+			final VPackSlice slice = builder.slice();
+			assertThat(slice.get("ab").getAsInt(), is(1));
+			assertThat(slice.get("a").getAsInt(), is(2));
+			assertThat(slice.get("ä€").getAsInt(), is(3));
+			assertThat(slice.get("_key").getAsInt(), is(4));
+			assertThat(slice.get(longKey).getAsInt(), is(5));
+			assertThat(slice.get("abc").isNone(), is(true));
+			assertThat(slice.get("_k").isNone(), is(true));
+			assertThat(slice.get(longKey + "k").isNone(), is(true));
+		}
+	}
+
+	@Test
+	public void compactArrayRandomAccess() throws VPackException {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY, true);
+		for (int i = 0; i < 100; i++) {
+			if (i % 3 == 0) {
+				builder.add("value" + i);
+			} else {
+				builder.add(i);
+			}
+		}
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.head(), is((byte) 0x13));
+		for (final VPackSlice s : new VPackSlice[] { slice, slice.indexed() }) {
+			for (int i = 99; i >= 0; i--) {
+				final VPackSlice value = s.get(i);
+				if (i % 3 == 0) {
+					assertThat(value.getAsString(), is("value" + i));
+				} else {
+					assertThat(value.getAsInt(), is(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void indexedOnlyForLargeCompactValues() throws VPackException {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY);
+		builder.add(ValueType.ARRAY, true);
+		for (int i = 0; i < 7; i++) {
+			builder.add(i);
+		}
+		builder.close();
+		builder.add(ValueType.OBJECT, true);
+		for (int i = 0; i < 8; i++) {
+			builder.add("attr" + i, i);
+		}
+		builder.close();
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		assertThat(slice.indexed(), is(sameInstance(slice)));
+		final VPackSlice small = slice.get(0);
+		assertThat(small.indexed(), is(sameInstance(small)));
+		final VPackSlice indexed = slice.get(1).indexed();
+		assertThat(indexed, is(not(sameInstance(slice.get(1)))));
+		assertThat(indexed.indexed(), is(sameInstance(indexed)));
+		assertThat(indexed, is(slice.get(1)));
+		assertThat(indexed.get("attr7").getAsInt(), is(7));
+		assertThat(indexed.get("attr8").isNone(), is(true));
+		assertThat(indexed.keyAt(3).getAsString(), is("attr3"));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void compactArrayIndexOutOfBounds() throws VPackException {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.ARRAY, true);
+		for (int i = 0; i < 20; i++) {
+			builder.add(i);
+		}
+		builder.close();
+		builder.slice().indexed().get(20);
+	}
+
+	@Test
+	public void compactObjectConcurrentLookup() throws Exception {
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT, true);
+		builder.add("_key", "k");
+		for (int i = 0; i < 100; i++) {
+			builder.add("attr" + i, i);
+		}
+		builder.close();
+		final VPackSlice slice = builder.slice().indexed();
+		assertThat(slice.head(), is((byte) 0x14));
+
+		final Thread[] threads = new Thread[4];
+		final Throwable[] failure = new Throwable[1];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					for (int i = 0; i < 100; i++) {
+						assertThat(slice.get("attr" + i).getAsInt(), is(i));
+						assertThat(slice.keyAt(i + 1).getAsString(), is("attr" + i));
+					}
+					assertThat(slice.get("_key").getAsString(), is("k"));
+					assertThat(slice.get("attr100").isNone(), is(true));
+				} catch (final Throwable e) {
+					failure[0] = e;
+				}
+			});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(failure[0] == null, is(true));
+	}
+
+	@Test
+	public void primitiveGettersMatchNumber() throws VPackException {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseNativeBigNumbers(true);
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(0L).add(9L).add(-6L).add(-7L).add(100L).add(-100L).add(70000L).add(Long.MAX_VALUE)
+				.add(Long.MIN_VALUE).add(1.5e10).add(-2.75).add(new java.math.BigDecimal("12.5"));
+		builder.close();
+		for (final Iterator<VPackSlice> iterator = builder.slice().arrayIterator(); iterator.hasNext();) {
+			final VPackSlice slice = iterator.next();
+			final Number number = slice.getAsNumber();
+			assertThat(slice.getAsLong(), is(number.longValue()));
+			assertThat(slice.getAsInt(), is(number.intValue()));
+			assertThat(slice.getAsShort(), is(number.shortValue()));
+			assertThat(slice.getAsByte(), is(number.byteValue()));
+			assertThat(slice.getAsDouble(), is(number.doubleValue()));
+			assertThat(slice.getAsFloat(), is(number.floatValue()));
+			assertThat(slice.getAsLong(-1L), is(number.longValue()));
+		}
+	}
+
+	@Test
+	public void primitiveGettersWithDefault() throws VPackException {
+		final VPackSlice slice = new VPackBuilder().add(ValueType.OBJECT).add("a", 5).add("s", "x").close().slice();
+		assertThat(slice.get("a").getAsLong(-1L), is(5L));
+		assertThat(slice.get("a").getAsInt(-1), is(5));
+		assertThat(slice.get("a").getAsDouble(-1.0), is(5.0));
+		assertThat(slice.get("missing").getAsLong(-1L), is(-1L));
+		assertThat(slice.get("missing").getAsInt(-1), is(-1));
+		assertThat(slice.get("s").getAsDouble(0.5), is(0.5));
+		assertThat(slice.get("s").getAsFloat(0.5f), is(0.5f));
+		assertThat(slice.get("s").getAsShort((short) 3), is((short) 3));
+		assertThat(slice.getAsLong(7L), is(7L));
+	}
+
+	@Test(expected = VPackValueTypeException.class)
+	public void getAsLongFromStringFail() throws VPackException {
+		new VPackBuilder().add("1").slice().getAsLong();
+	}
+
+	@Test
+	public void hashIsPositionIndependent() {
+		final VPackSlice slice = new VPackSlice(new byte[] { 0x02, 0x06, 0x41, 0x61, 0x41, 0x61 });
+		final VPackSlice first = slice.get(0);
+		final VPackSlice copy = new VPackSlice(new byte[] { 0x41, 0x61 });
+		assertThat(first.hash64(), is(copy.hash64()));
+		assertThat(first.hashCode(), is(copy.hashCode()));
+		assertThat(first.hashCode(), is(slice.get(1).hashCode()));
+		assertThat(first.hash64(1) == first.hash64(), is(false));
+	}
+
+	@Test
+	public void normalizedHashOfNumbers() {
+		final DefaultVPackBuilderOptions options = new DefaultVPackBuilderOptions();
+		options.setUseFixedIntegerWidth(true);
+		final VPackBuilder builder = new VPackBuilder(options);
+		builder.add(ValueType.ARRAY);
+		builder.add(1L);
+		builder.add(1);
+		builder.add(1.0);
+		builder.add(0.0);
+		builder.add(-0.0);
+		builder.add(0);
+		builder.close();
+		final VPackSlice slice = builder.slice();
+		final long one = new VPackSlice(new byte[] { 0x31 }).normalizedHash();
+		assertThat(slice.get(0).normalizedHash(), is(one));
+		assertThat(slice.get(1).normalizedHash(), is(one));
+		assertThat(slice.get(2).normalizedHash(), is(one));
+		assertThat(slice.get(3).normalizedHash(), is(slice.get(5).normalizedHash()));
+		assertThat(slice.get(4).normalizedHash(), is(slice.get(5).normalizedHash()));
+		assertThat(slice.get(0).hash64() == slice.get(2).hash64(), is(false));
+	}
+
+	@Test
+	public void normalizedHashOfStrings() {
+		final VPackSlice shortString = new VPackSlice(new byte[] { 0x41, 0x61 });
+		final VPackSlice longString = new VPackSlice(
+				new byte[] { (byte) 0xbf, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x61 });
+		assertThat(longString.getAsString(), is("a"));
+		assertThat(longString.normalizedHash(), is(shortString.normalizedHash()));
+		assertThat(new VPackSlice(new byte[] { 0x41, 0x62 }).normalizedHash() == shortString.normalizedHash(),
+			is(false));
+	}
+
+	@Test
+	public void normalizedHashOfCompounds() {
+		final long[] hashes = new long[4];
+		for (int i = 0; i < hashes.length; i++) {
+			final VPackBuilder builder = new VPackBuilder();
+			builder.getOptions().setBuildUnindexedArrays(i % 2 == 1);
+			builder.getOptions().setBuildUnindexedObjects(i % 2 == 1);
+			builder.add(ValueType.OBJECT);
+			if (i < 2) {
+				builder.add("a", 1);
+				builder.add("b", ValueType.ARRAY);
+				builder.add("x");
+				builder.add(2);
+				builder.close();
+			} else {
+				builder.add("b", ValueType.ARRAY);
+				builder.add("x");
+				builder.add(2);
+				builder.close();
+				builder.add("a", 1);
+			}
+			builder.close();
+			hashes[i] = builder.slice().normalizedHash();
+		}
+		assertThat(hashes[1], is(hashes[0]));
+		assertThat(hashes[2], is(hashes[0]));
+		assertThat(hashes[3], is(hashes[0]));
+
+		final VPackBuilder reordered = new VPackBuilder();
+		reordered.add(ValueType.OBJECT);
+		reordered.add("a", 1);
+		reordered.add("b", ValueType.ARRAY);
+		reordered.add(2);
+		reordered.add("x");
+		reordered.close();
+		reordered.close();
+		assertThat(reordered.slice().normalizedHash() == hashes[0], is(false));
+	}
+
+	@Test
+	public void normalizedHashOfTranslatedKey() {
+		// {1:"a"}
+		final VPackSlice translated = new VPackSlice(new byte[] { 0x0b, 0x06, 0x01, 0x31, 0x41, 0x61 });
+		final VPackBuilder builder = new VPackBuilder();
+		builder.add(ValueType.OBJECT);
+		builder.add("_key", "a");
+		builder.close();
+		assertThat(translated.normalizedHash(), is(builder.slice().normalizedHash()));
+	}
+
 	@Test
 	public void objectSorted4Entries() throws VPackException {
 		// {"a":"b","c":"d","e":"f","g":"h"}
@@ -0,0 +1,110 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.exception.VPackBuilderException;
+
+public class VPackStreamBuilderTest {
+
+	private static void addDocument(final VPackBuilder builder, final int i) {
+		builder.add(ValueType.OBJECT);
+		builder.add("_key", String.valueOf(i));
+		builder.add("value", i);
+		builder.add("tags", ValueType.ARRAY);
+		builder.add("a");
+		builder.add("b");
+		builder.close();
+		builder.close();
+	}
+
+	private static void assertDocuments(final byte[] output, final int count) {
+		int pos = 0;
+		for (int i = 0; i < count; i++) {
+			final VPackSlice slice = new VPackSlice(output, pos);
+			assertThat(slice.get("_key").getAsString(), is(String.valueOf(i)));
+			assertThat(slice.get("value").getAsInt(), is(i));
+			assertThat(slice.get("tags").getLength(), is(2));
+			pos += slice.getByteSize();
+		}
+		assertThat(new VPackSlice(output, pos).getAsString(), is("done"));
+		assertThat(pos + new VPackSlice(output, pos).getByteSize(), is(output.length));
+	}
+
+	@Test
+	public void outputStream() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final VPackStreamBuilder builder = new VPackStreamBuilder(out);
+		for (int i = 0; i < 1000; i++) {
+			addDocument(builder, i);
+			assertThat(builder.getVpackSize(), is(0));
+		}
+		builder.add("done");
+		builder.flush();
+
+		assertThat(builder.getCapacity() < 100, is(true));
+		assertThat(builder.getBytesWritten(), is((long) out.size()));
+		assertDocuments(out.toByteArray(), 1000);
+	}
+
+	@Test
+	public void channel() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final VPackStreamBuilder builder = new VPackStreamBuilder(Channels.newChannel(out));
+		for (int i = 0; i < 10; i++) {
+			addDocument(builder, i);
+		}
+		builder.add("done");
+		assertDocuments(out.toByteArray(), 10);
+	}
+
+	@Test
+	public void sameBytesAsBuilder() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		addDocument(new VPackStreamBuilder(out), 42);
+		final VPackBuilder builder = new VPackBuilder();
+		addDocument(builder, 42);
+		final byte[] expected = new byte[builder.getVpackSize()];
+		System.arraycopy(builder.slice().getBuffer(), 0, expected, 0, expected.length);
+		assertThat(out.toByteArray(), is(expected));
+	}
+
+	@Test(expected = VPackBuilderException.class)
+	public void writeError() {
+		final VPackStreamBuilder builder = new VPackStreamBuilder(new OutputStream() {
+			@Override
+			public void write(final int b) throws IOException {
+				throw new IOException();
+			}
+		});
+		builder.add(1);
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack.util;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.util.ByteArrayAccess;
+
+public class ByteArrayAccessTest {
+
+	private static final long[] VALUES = { 0L, 1L, -1L, 0x7fL, 0x80L, 0xffL, 0x1234L, 0x8000L, 0x12345678L,
+			0x80000000L, 0x0123456789abcdefL, Long.MIN_VALUE, Long.MAX_VALUE };
+
+	/**
+	 * When the tests run against the multi-release jar on Java 9 or later, the Java 9 version has to be loaded.
+	 */
+	@Test
+	public void java9VersionFromMultiReleaseJar() {
+		Assume.assumeTrue(Boolean.getBoolean("velocypack.multiReleaseJar"));
+		final URL location = ByteArrayAccess.class.getResource("ByteArrayAccess.class");
+		assertThat(location.toString(), containsString("META-INF/versions/9/"));
+	}
+
+	@Test
+	public void readAndWriteLittleEndian() {
+		final byte[] array = new byte[11];
+		final ByteBuffer buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+		for (final long value : VALUES) {
+			for (final int offset : new int[] { 0, 1, 3 }) {
+				ByteArrayAccess.putLongLE(array, offset, value);
+				assertThat(buffer.getLong(offset), is(value));
+				assertThat(ByteArrayAccess.getLongLE(array, offset), is(value));
+				assertThat(ByteArrayAccess.getIntLE(array, offset), is((int) value));
+				assertThat(ByteArrayAccess.getShortLE(array, offset), is((short) value));
+
+				ByteArrayAccess.putIntLE(array, offset, (int) value);
+				assertThat(buffer.getInt(offset), is((int) value));
+			}
+		}
+	}
+
+	@Test
+	public void mismatch() {
+		final byte[] a = { 1, 2, 3, 4, 5 };
+		final byte[] b = { 9, 1, 2, 3, 5, 5 };
+		assertThat(ByteArrayAccess.mismatch(a, 0, b, 1, 3), is(-1));
+		assertThat(ByteArrayAccess.mismatch(a, 0, b, 1, 4), is(3));
+		assertThat(ByteArrayAccess.mismatch(a, 0, b, 0, 0), is(-1));
+	}
+
+	@Test
+	public void compareUnsigned() {
+		final byte[] a = { 'a', 'b', (byte) 0xc3 };
+		final byte[] b = { 'x', 'a', 'b', 'c' };
+		assertThat(ByteArrayAccess.compareUnsigned(a, 0, 2, b, 1, 2), is(0));
+		assertThat(ByteArrayAccess.compareUnsigned(a, 0, 2, b, 1, 3) < 0, is(true));
+		assertThat(ByteArrayAccess.compareUnsigned(a, 0, 3, b, 1, 3) > 0, is(true));
+		assertThat(ByteArrayAccess.compareUnsigned(b, 1, 3, a, 0, 3) < 0, is(true));
+		assertThat(ByteArrayAccess.compareUnsigned(a, 0, 0, b, 0, 0), is(0));
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.util.HashUtil;
+
+public class HashUtilTest {
+
+	private static long hash(final String value) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return HashUtil.hash64(bytes, 0, bytes.length, 0);
+	}
+
+	@Test
+	public void referenceValues() {
+		assertThat(hash(""), is(0xEF46DB3751D8E999L));
+		assertThat(hash("a"), is(0xD24EC4F1A98C6E5BL));
+		assertThat(hash("abc"), is(0x44BC2CF5AD770999L));
+		assertThat(hash("Nobody inspects the spammish repetition"), is(0xFBCEA83C8A378BF1L));
+	}
+
+	@Test
+	public void offsetAndSeed() {
+		final byte[] bytes = "xxabcxx".getBytes(StandardCharsets.UTF_8);
+		assertThat(HashUtil.hash64(bytes, 2, 3, 0), is(hash("abc")));
+		assertThat(HashUtil.hash64(bytes, 2, 3, 1) == hash("abc"), is(false));
+	}
+
+	@Test
+	public void longValue() {
+		final byte[] bytes = new byte[8];
+		for (final long value : new long[] { 0L, 1L, -1L, 0x0123456789abcdefL }) {
+			ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(value);
+			assertThat(HashUtil.hash64(value, 7), is(HashUtil.hash64(bytes, 0, 8, 7)));
+		}
+	}
+
+}
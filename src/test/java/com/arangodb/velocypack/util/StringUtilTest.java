@@ -0,0 +1,56 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.internal.util.StringUtil;
+
+public class StringUtilTest {
+
+	private static final String[] VALUES = { "", "a", "Hallo Welt!", "·ÃÂ", "ÿĀ", "߿ࠀ", "€uro", "￿",
+			"😀 smile", "x\ud83dy", "\ude00", "end\ud83d", "mixed ascii ä ö ü 中文 𝄞" };
+
+	@Test
+	public void encodedLength() {
+		for (final String value : VALUES) {
+			assertThat(value, StringUtil.encodedLength(value), is(value.getBytes(StandardCharsets.UTF_8).length));
+		}
+	}
+
+	@Test
+	public void encode() {
+		for (final String value : VALUES) {
+			final byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+			final byte[] array = new byte[expected.length + 4];
+			final int end = StringUtil.encode(value, array, 2);
+			assertThat(value, end, is(2 + expected.length));
+			assertThat(value, Arrays.copyOfRange(array, 2, end), is(expected));
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * DISCLAIMER
+ *
+ * Copyright 2016 ArangoDB GmbH, Cologne, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright holder is ArangoDB GmbH, Cologne, Germany
+ */
+
+package com.arangodb.velocypack.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import com.arangodb.velocypack.ValueType;
+import com.arangodb.velocypack.internal.util.ObjectArrayUtil;
+import com.arangodb.velocypack.internal.util.ValueHeadUtil;
+import com.arangodb.velocypack.internal.util.ValueLengthUtil;
+import com.arangodb.velocypack.internal.util.ValueTypeUtil;
+
+public class ValueHeadUtilTest {
+
+	@Test
+	public void matchesSeparateTables() {
+		for (int i = 0; i < 256; i++) {
+			final byte head = (byte) i;
+			final int info = ValueHeadUtil.get(head);
+			final ValueType type = ValueTypeUtil.get(head);
+			final String reason = Integer.toHexString(i);
+			assertThat(reason, ValueHeadUtil.getType(info), is(type));
+			assertThat(reason, ValueHeadUtil.isType(info, type), is(true));
+			assertThat(reason, ValueHeadUtil.getByteSize(info), is(ValueLengthUtil.get(head)));
+			assertThat(reason, (info & ValueHeadUtil.ARRAY) != 0, is(type == ValueType.ARRAY));
+			assertThat(reason, (info & ValueHeadUtil.OBJECT) != 0, is(type == ValueType.OBJECT));
+			assertThat(reason, (info & ValueHeadUtil.STRING) != 0, is(type == ValueType.STRING));
+			final boolean integer = type == ValueType.INT || type == ValueType.UINT || type == ValueType.SMALLINT;
+			assertThat(reason, (info & ValueHeadUtil.INTEGER) != 0, is(integer));
+			assertThat(reason, (info & ValueHeadUtil.NUMBER) != 0, is(integer || type == ValueType.DOUBLE));
+			assertThat(reason, (info & ValueHeadUtil.COMPACT) != 0, is(i == 0x13 || i == 0x14));
+			if (i >= 0x01 && i <= 0x12) {
+				assertThat(reason, ValueHeadUtil.getOffsetSize(info), is(ObjectArrayUtil.getOffsetSize(head)));
+				assertThat(reason, ValueHeadUtil.getFirstSub(info), is(ObjectArrayUtil.getFirstSubMap(head)));
+			}
+		}
+	}
+
+}